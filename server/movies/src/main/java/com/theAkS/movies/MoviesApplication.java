@@ -6,6 +6,7 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.data.mongo.MongoDataAutoConfiguration;
 import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
 import org.springframework.boot.autoconfigure.mongo.MongoAutoConfiguration;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 
 // Add the 'exclude' attribute to disable auto-configuration
 @SpringBootApplication(exclude = {
@@ -15,7 +16,12 @@ import org.springframework.boot.autoconfigure.mongo.MongoAutoConfiguration;
 })
 public class MoviesApplication {
 
+    private static final int STARTUP_STEPS = 8192;
+
     public static void main(String[] args) {
-        SpringApplication.run(MoviesApplication.class, args);
+        SpringApplication application = new SpringApplication(MoviesApplication.class);
+        // Records startup steps for StartupTimingReport and /actuator/startup
+        application.setApplicationStartup(new BufferingApplicationStartup(STARTUP_STEPS));
+        application.run(args);
     }
 }
\ No newline at end of file
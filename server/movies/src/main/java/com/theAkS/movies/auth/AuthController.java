@@ -3,7 +3,7 @@ package com.theAkS.movies.auth;
 import com.theAkS.movies.auth.dto.AuthResponse;
 import com.theAkS.movies.auth.dto.LoginRequest;
 import com.theAkS.movies.auth.dto.RegisterRequest;
-import com.theAkS.movies.user.User;
+import com.theAkS.movies.user.UserProfile;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -29,7 +29,7 @@ public class AuthController {
             AuthResponse response = authService.login(loginRequest);
             return ResponseEntity.ok(createSuccessResponse("Login successful", response));
         } catch (Exception e) {
-            log.error("Login failed for user: {}", loginRequest.getUsername(), e);
+            log.warn("Login failed for user {}: {}", loginRequest.getUsername(), e.getMessage());
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(createErrorResponse("Invalid username or password"));
         }
@@ -42,7 +42,7 @@ public class AuthController {
             return ResponseEntity.status(HttpStatus.CREATED)
                     .body(createSuccessResponse("User registered successfully", response));
         } catch (RuntimeException e) {
-            log.error("Registration failed for user: {}", registerRequest.getUsername(), e);
+            log.warn("Registration failed for user {}: {}", registerRequest.getUsername(), e.getMessage());
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                     .body(createErrorResponse(e.getMessage()));
         }
@@ -55,7 +55,7 @@ public class AuthController {
             AuthResponse response = authService.refreshToken(token);
             return ResponseEntity.ok(createSuccessResponse("Token refreshed successfully", response));
         } catch (Exception e) {
-            log.error("Token refresh failed", e);
+            log.warn("Token refresh failed: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(createErrorResponse("Invalid token"));
         }
@@ -87,7 +87,7 @@ public class AuthController {
             
             return ResponseEntity.ok(response);
         } catch (Exception e) {
-            log.error("Token verification failed", e);
+            log.warn("Token verification failed: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(createErrorResponse("Invalid token"));
         }
@@ -97,23 +97,23 @@ public class AuthController {
     public ResponseEntity<?> getCurrentUser(@RequestHeader("Authorization") String authHeader) {
         try {
             String token = authHeader.substring(7); // Remove "Bearer " prefix
-            User user = authService.getCurrentUser(token);
+            UserProfile user = authService.getCurrentUser(token);
             
             Map<String, Object> userData = new HashMap<>();
-            userData.put("id", user.getId());
-            userData.put("username", user.getUsername());
-            userData.put("email", user.getEmail());
-            userData.put("firstName", user.getFirstName());
-            userData.put("lastName", user.getLastName());
-            userData.put("fullName", user.getFullName());
-            userData.put("avatarUrl", user.getAvatarUrl());
-            userData.put("isActive", user.getIsActive());
-            userData.put("isEmailVerified", user.getIsEmailVerified());
-            userData.put("createdAt", user.getCreatedAt());
+            userData.put("id", user.id());
+            userData.put("username", user.username());
+            userData.put("email", user.email());
+            userData.put("firstName", user.firstName());
+            userData.put("lastName", user.lastName());
+            userData.put("fullName", user.fullName());
+            userData.put("avatarUrl", user.avatarUrl());
+            userData.put("isActive", user.isActive());
+            userData.put("isEmailVerified", user.isEmailVerified());
+            userData.put("createdAt", user.createdAt());
             
             return ResponseEntity.ok(createSuccessResponse("User data retrieved successfully", userData));
         } catch (Exception e) {
-            log.error("Failed to get current user", e);
+            log.warn("Failed to get current user: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(createErrorResponse("Invalid token"));
         }
@@ -1,7 +1,10 @@
 package com.theAkS.movies.auth;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
@@ -11,28 +14,65 @@ import org.springframework.security.web.AuthenticationEntryPoint;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
-import java.util.HashMap;
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Writes the 401 body from pre-rendered JSON fragments; only the message and path are encoded per
+ * request, and messages come from a handful of exception types, so those are cached as well.
+ */
 @Component
 @Slf4j
 public class AuthEntryPointJwt implements AuthenticationEntryPoint {
-    
+
+    // {"success":false,"status":401,"message":"Unauthorized: ...","path":"..."}
+    private static final byte[] BEFORE_MESSAGE = ascii("{\"success\":false,\"status\":401,\"message\":\"Unauthorized: ");
+    private static final byte[] BEFORE_PATH = ascii("\",\"path\":\"");
+    private static final byte[] END = ascii("\"}");
+    private static final int MAX_CACHED_MESSAGES = 64;
+
+    private final Map<String, byte[]> messages = new ConcurrentHashMap<>();
+    private final Counter unauthorized;
+
+    public AuthEntryPointJwt(MeterRegistry meterRegistry) {
+        this.unauthorized = Counter.builder("movies.auth.unauthorized")
+                .description("Requests answered with 401")
+                .register(meterRegistry);
+    }
+
     @Override
     public void commence(HttpServletRequest request, HttpServletResponse response,
                         AuthenticationException authException) throws IOException, ServletException {
-        log.error("Unauthorized error: {}", authException.getMessage());
-        
+        unauthorized.increment();
+        log.debug("Unauthorized request to {}: {}", request.getServletPath(), authException.getMessage());
+
+        byte[] message = encodedMessage(String.valueOf(authException.getMessage()));
+        byte[] path = JsonStringEncoder.getInstance().quoteAsUTF8(request.getServletPath());
+
         response.setContentType(MediaType.APPLICATION_JSON_VALUE);
         response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-        
-        final Map<String, Object> body = new HashMap<>();
-        body.put("success", false);
-        body.put("message", "Unauthorized: " + authException.getMessage());
-        body.put("status", HttpServletResponse.SC_UNAUTHORIZED);
-        body.put("path", request.getServletPath());
-        
-        final ObjectMapper mapper = new ObjectMapper();
-        mapper.writeValue(response.getOutputStream(), body);
+        response.setContentLength(BEFORE_MESSAGE.length + message.length + BEFORE_PATH.length + path.length + END.length);
+        ServletOutputStream out = response.getOutputStream();
+        out.write(BEFORE_MESSAGE);
+        out.write(message);
+        out.write(BEFORE_PATH);
+        out.write(path);
+        out.write(END);
+    }
+
+    private byte[] encodedMessage(String message) {
+        byte[] encoded = messages.get(message);
+        if (encoded == null) {
+            encoded = JsonStringEncoder.getInstance().quoteAsUTF8(message);
+            if (messages.size() < MAX_CACHED_MESSAGES) {
+                messages.put(message, encoded);
+            }
+        }
+        return encoded;
+    }
+
+    private static byte[] ascii(String fragment) {
+        return fragment.getBytes(StandardCharsets.US_ASCII);
     }
 }
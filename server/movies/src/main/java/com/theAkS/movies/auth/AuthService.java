@@ -4,9 +4,12 @@ import com.theAkS.movies.auth.dto.AuthResponse;
 import com.theAkS.movies.auth.dto.LoginRequest;
 import com.theAkS.movies.auth.dto.RegisterRequest;
 import com.theAkS.movies.exception.ResourceNotFoundException;
+import com.theAkS.movies.support.DependencyGuard;
 import com.theAkS.movies.user.Role;
 import com.theAkS.movies.user.RoleRepository;
 import com.theAkS.movies.user.User;
+import com.theAkS.movies.user.UserDetailsServiceImpl;
+import com.theAkS.movies.user.UserProfile;
 import com.theAkS.movies.user.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -16,6 +19,7 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
@@ -34,9 +38,14 @@ public class AuthService {
     private final RoleRepository roleRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtUtils jwtUtils;
+    private final DependencyGuard dependencyGuard;
+    private final UserDetailsServiceImpl userDetailsService;
     
+    // No transaction here: BCrypt takes tens of milliseconds and must not pin a pooled connection.
+    // The credential load and the profile read each run in their own short readOnly transaction.
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public AuthResponse login(LoginRequest loginRequest) {
-        log.info("Attempting login for user: {}", loginRequest.getUsername());
+        log.debug("Attempting login for user: {}", loginRequest.getUsername());
         
         Authentication authentication = authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(
@@ -48,7 +57,7 @@ public class AuthService {
         SecurityContextHolder.getContext().setAuthentication(authentication);
         String jwt = jwtUtils.generateJwtToken(authentication);
         
-        User user = userRepository.findByUsernameWithRoles(loginRequest.getUsername())
+        UserProfile user = userDetailsService.loadProfile(loginRequest.getUsername())
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
         
         LocalDateTime expiresAt = LocalDateTime.ofInstant(
@@ -56,18 +65,18 @@ public class AuthService {
                 ZoneId.systemDefault()
         );
         
-        log.info("User {} logged in successfully", user.getUsername());
-        return AuthResponse.fromUser(user, jwt, expiresAt);
+        log.info("User {} logged in successfully", user.username());
+        return AuthResponse.fromProfile(user, jwt, expiresAt);
     }
     
     public AuthResponse register(RegisterRequest registerRequest) {
-        log.info("Attempting registration for user: {}", registerRequest.getUsername());
+        log.debug("Attempting registration for user: {}", registerRequest.getUsername());
         
-        if (userRepository.existsByUsername(registerRequest.getUsername())) {
+        if (dependencyGuard.postgres(() -> userRepository.existsByUsername(registerRequest.getUsername()))) {
             throw new RuntimeException("Error: Username is already taken!");
         }
         
-        if (userRepository.existsByEmail(registerRequest.getEmail())) {
+        if (dependencyGuard.postgres(() -> userRepository.existsByEmail(registerRequest.getEmail()))) {
             throw new RuntimeException("Error: Email is already in use!");
         }
         
@@ -84,12 +93,12 @@ public class AuthService {
         
         // Set default role
         Set<Role> roles = new HashSet<>();
-        Role userRole = roleRepository.findByName(Role.RoleName.ROLE_USER)
+        Role userRole = dependencyGuard.postgres(() -> roleRepository.findByName(Role.RoleName.ROLE_USER))
                 .orElseThrow(() -> new RuntimeException("Error: Role is not found."));
         roles.add(userRole);
         user.setRoles(roles);
         
-        User savedUser = userRepository.save(user);
+        User savedUser = dependencyGuard.postgres(() -> userRepository.save(user));
         log.info("User {} registered successfully", savedUser.getUsername());
         
         // Auto-login after registration
@@ -111,13 +120,14 @@ public class AuthService {
         return AuthResponse.fromUser(savedUser, jwt, expiresAt);
     }
     
+    @Transactional(readOnly = true)
     public AuthResponse refreshToken(String token) {
         if (!jwtUtils.validateJwtToken(token)) {
             throw new RuntimeException("Invalid token");
         }
         
         String username = jwtUtils.getUserNameFromJwtToken(token);
-        User user = userRepository.findByUsernameWithRoles(username)
+        UserProfile user = dependencyGuard.postgres(() -> userRepository.findProfileByUsername(username))
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
         
         String newJwt = jwtUtils.generateTokenFromUsername(username);
@@ -127,7 +137,7 @@ public class AuthService {
                 ZoneId.systemDefault()
         );
         
-        return AuthResponse.fromUser(user, newJwt, expiresAt);
+        return AuthResponse.fromProfile(user, newJwt, expiresAt);
     }
     
     public void logout(String token) {
@@ -141,9 +151,10 @@ public class AuthService {
         return jwtUtils.validateJwtToken(token) && !jwtUtils.isTokenExpired(token);
     }
     
-    public User getCurrentUser(String token) {
+    @Transactional(readOnly = true)
+    public UserProfile getCurrentUser(String token) {
         String username = jwtUtils.getUserNameFromJwtToken(token);
-        return userRepository.findByUsernameWithRoles(username)
+        return dependencyGuard.postgres(() -> userRepository.findProfileByUsername(username))
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
     }
 }
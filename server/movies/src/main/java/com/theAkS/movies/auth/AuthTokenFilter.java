@@ -1,5 +1,6 @@
 package com.theAkS.movies.auth;
 
+import com.theAkS.movies.timing.RequestTiming;
 import com.theAkS.movies.user.UserDetailsServiceImpl;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -30,10 +31,14 @@ public class AuthTokenFilter extends OncePerRequestFilter {
                                   FilterChain filterChain) throws ServletException, IOException {
         try {
             String jwt = parseJwt(request);
-            if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
-                String username = jwtUtils.getUserNameFromJwtToken(jwt);
-                
+            long jwtStart = RequestTiming.begin();
+            String username = jwt == null ? null : jwtUtils.verifiedSubject(jwt);
+            RequestTiming.end("auth.jwt", jwtStart);
+            if (username != null) {
+                // Includes the transaction and connection checkout around the Postgres query
+                long userStart = RequestTiming.begin();
                 UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+                RequestTiming.end("auth.user", userStart);
                 UsernamePasswordAuthenticationToken authentication = 
                     new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
                 authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
@@ -41,7 +46,7 @@ public class AuthTokenFilter extends OncePerRequestFilter {
                 SecurityContextHolder.getContext().setAuthentication(authentication);
             }
         } catch (Exception e) {
-            log.error("Cannot set user authentication: {}", e.getMessage());
+            log.warn("Cannot set user authentication: {}", e.getMessage());
         }
         
         filterChain.doFilter(request, response);
@@ -1,83 +1,132 @@
 package com.theAkS.movies.auth;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
+import javax.crypto.Mac;
 import javax.crypto.SecretKey;
+import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Base64;
 import java.util.Date;
 
+/**
+ * Issues and verifies the HS256 tokens. {@link #verifiedSubject} rejects malformed, forged and
+ * expired tokens with plain checks before the JWT library sees them (it reports each of those by
+ * throwing), so a flood of bad tokens costs a character scan and at most one HMAC per request.
+ * Rejections are counted in {@code movies.auth.token.rejected} by reason instead of being logged.
+ */
 @Component
+@RequiredArgsConstructor
 @Slf4j
 public class JwtUtils {
-    
+
+    // Far above anything we issue; longer headers are not worth scanning
+    private static final int MAX_TOKEN_LENGTH = 4096;
+    private static final int SIGNATURE_LENGTH = 43; // unpadded base64url of a 32-byte HMAC-SHA256
+    private static final Base64.Encoder SIGNATURE_ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
     @Value("${jwt.secret}")
     private String jwtSecret;
-    
+
     @Value("${jwt.expiration}")
     private int jwtExpirationMs;
-    
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = jwtSecret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+
+    private SecretKey signingKey;
+    private JwtParser parser;
+    private ThreadLocal<Signer> signers;
+    private Counter malformed;
+    private Counter forged;
+    private Counter expired;
+    private Counter invalid;
+
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+        signers = ThreadLocal.withInitial(() -> new Signer(signingKey));
+        malformed = rejected("malformed");
+        forged = rejected("signature");
+        expired = rejected("expired");
+        invalid = rejected("invalid");
+    }
+
+    private Counter rejected(String reason) {
+        return Counter.builder("movies.auth.token.rejected")
+                .description("Bearer tokens rejected before authentication, by reason")
+                .tag("reason", reason)
+                .register(meterRegistry);
     }
-    
+
     public String generateJwtToken(Authentication authentication) {
         UserDetails userPrincipal = (UserDetails) authentication.getPrincipal();
         return generateTokenFromUsername(userPrincipal.getUsername());
     }
-    
+
     public String generateTokenFromUsername(String username) {
         return Jwts.builder()
                 .setSubject(username)
                 .setIssuedAt(new Date())
                 .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
-    
+
     public String getUserNameFromJwtToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
+        return parser.parseClaimsJws(token)
                 .getBody()
                 .getSubject();
     }
-    
-    public boolean validateJwtToken(String authToken) {
+
+    /** The token's subject, or null when the token is malformed, not signed by us, expired or otherwise invalid. */
+    public String verifiedSubject(String token) {
+        if (!wellFormed(token)) {
+            malformed.increment();
+            return null;
+        }
+        if (!signers.get().matches(token)) {
+            forged.increment();
+            return null;
+        }
+        if (expiredPayload(token)) {
+            expired.increment();
+            return null;
+        }
+        // Ours and current: the library's full check is now expected to pass
         try {
-            Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(authToken);
-            return true;
-        } catch (MalformedJwtException e) {
-            log.error("Invalid JWT token: {}", e.getMessage());
-        } catch (ExpiredJwtException e) {
-            log.error("JWT token is expired: {}", e.getMessage());
-        } catch (UnsupportedJwtException e) {
-            log.error("JWT token is unsupported: {}", e.getMessage());
-        } catch (IllegalArgumentException e) {
-            log.error("JWT claims string is empty: {}", e.getMessage());
+            return parser.parseClaimsJws(token).getBody().getSubject();
+        } catch (JwtException | IllegalArgumentException e) {
+            invalid.increment();
+            log.debug("JWT rejected after pre-checks: {}", e.getMessage());
+            return null;
         }
-        return false;
     }
-    
+
+    public boolean validateJwtToken(String authToken) {
+        return verifiedSubject(authToken) != null;
+    }
+
     public Date getExpirationDateFromToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
+        return parser.parseClaimsJws(token)
                 .getBody()
                 .getExpiration();
     }
-    
+
     public boolean isTokenExpired(String token) {
         try {
             Date expiration = getExpirationDateFromToken(token);
@@ -86,4 +135,80 @@ public class JwtUtils {
             return true;
         }
     }
+
+    // header.payload.signature, each non-empty base64url
+    private static boolean wellFormed(String token) {
+        int length = token.length();
+        if (length > MAX_TOKEN_LENGTH) {
+            return false;
+        }
+        int dots = 0;
+        int lastDot = -1;
+        for (int i = 0; i < length; i++) {
+            char c = token.charAt(i);
+            if (c == '.') {
+                if (i == lastDot + 1) {
+                    return false;
+                }
+                dots++;
+                lastDot = i;
+            } else if (!((c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '-' || c == '_')) {
+                return false;
+            }
+        }
+        return dots == 2 && length - lastDot - 1 == SIGNATURE_LENGTH;
+    }
+
+    // Only reached for tokens we signed, so the payload is our own JSON
+    private boolean expiredPayload(String token) {
+        int first = token.indexOf('.');
+        int second = token.indexOf('.', first + 1);
+        try {
+            byte[] payload = Base64.getUrlDecoder().decode(token.substring(first + 1, second));
+            JsonNode exp = objectMapper.readTree(payload).get("exp");
+            return exp != null && exp.asLong() * 1000 <= System.currentTimeMillis();
+        } catch (IOException | IllegalArgumentException e) {
+            return false; // let the library decide
+        }
+    }
+
+    /** Per-thread HMAC state and buffers, so verifying a signature allocates nothing. */
+    private static final class Signer {
+        private final Mac mac;
+        private final byte[] signature = new byte[32];
+        private final byte[] encoded = new byte[SIGNATURE_LENGTH];
+        private byte[] input = new byte[512];
+
+        Signer(SecretKey key) {
+            try {
+                mac = Mac.getInstance("HmacSHA256");
+                mac.init(key);
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        // Constant-time comparison of the token's signature with ours over header.payload
+        boolean matches(String token) {
+            int signed = token.length() - SIGNATURE_LENGTH - 1;
+            if (input.length < signed) {
+                input = new byte[Math.max(signed, input.length * 2)];
+            }
+            for (int i = 0; i < signed; i++) {
+                input[i] = (byte) token.charAt(i); // base64url, so ASCII
+            }
+            try {
+                mac.update(input, 0, signed);
+                mac.doFinal(signature, 0);
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(e);
+            }
+            SIGNATURE_ENCODER.encode(signature, encoded);
+            int difference = 0;
+            for (int i = 0; i < SIGNATURE_LENGTH; i++) {
+                difference |= encoded[i] ^ token.charAt(signed + 1 + i);
+            }
+            return difference == 0;
+        }
+    }
 }
@@ -1,6 +1,7 @@
 package com.theAkS.movies.auth.dto;
 
 import com.theAkS.movies.user.User;
+import com.theAkS.movies.user.UserProfile;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -47,4 +48,19 @@ public class AuthResponse {
                 .expiresAt(expiresAt)
                 .build();
     }
+
+    public static AuthResponse fromProfile(UserProfile profile, String token, LocalDateTime expiresAt) {
+        return AuthResponse.builder()
+                .token(token)
+                .id(profile.id())
+                .username(profile.username())
+                .email(profile.email())
+                .firstName(profile.firstName())
+                .lastName(profile.lastName())
+                .fullName(profile.fullName())
+                .avatarUrl(profile.avatarUrl())
+                .roles(profile.roles())
+                .expiresAt(expiresAt)
+                .build();
+    }
 }
\ No newline at end of file
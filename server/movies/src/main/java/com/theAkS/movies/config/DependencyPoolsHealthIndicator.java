@@ -0,0 +1,66 @@
+package com.theAkS.movies.config;
+
+import com.theAkS.movies.support.DependencyGuard;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Reports per-dependency pool and bulkhead usage under /actuator/health/dependencyPools.
+ * Breaker state is reported separately by the resilience4j circuitBreakers indicator.
+ */
+@Component("dependencyPools")
+@RequiredArgsConstructor
+public class DependencyPoolsHealthIndicator implements HealthIndicator {
+
+    private final HikariDataSource postgresDataSource;
+    private final DependencyGuard dependencyGuard;
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    public Health health() {
+        Map<String, Object> postgres = new LinkedHashMap<>();
+        HikariPoolMXBean pool = postgresDataSource.getHikariPoolMXBean();
+        postgres.put("maxPoolSize", postgresDataSource.getMaximumPoolSize());
+        postgres.put("connectionTimeoutMs", postgresDataSource.getConnectionTimeout());
+        if (pool != null) {
+            postgres.put("active", pool.getActiveConnections());
+            postgres.put("idle", pool.getIdleConnections());
+            postgres.put("awaiting", pool.getThreadsAwaitingConnection());
+        }
+        postgres.put("bulkhead", bulkheadDetails(dependencyGuard.postgresBulkhead()));
+
+        Map<String, Object> mongo = new LinkedHashMap<>();
+        mongo.put("size", sumGauges("mongodb.driver.pool.size"));
+        mongo.put("checkedOut", sumGauges("mongodb.driver.pool.checkedout"));
+        mongo.put("waitQueue", sumGauges("mongodb.driver.pool.waitqueuesize"));
+        mongo.put("bulkhead", bulkheadDetails(dependencyGuard.mongoBulkhead()));
+
+        return Health.up()
+                .withDetail("postgres", postgres)
+                .withDetail("mongo", mongo)
+                .build();
+    }
+
+    private Map<String, Object> bulkheadDetails(Bulkhead bulkhead) {
+        Map<String, Object> details = new LinkedHashMap<>();
+        details.put("maxConcurrentCalls", bulkhead.getMetrics().getMaxAllowedConcurrentCalls());
+        details.put("availableConcurrentCalls", bulkhead.getMetrics().getAvailableConcurrentCalls());
+        return details;
+    }
+
+    private double sumGauges(String name) {
+        return meterRegistry.find(name).gauges().stream()
+                .mapToDouble(Gauge::value)
+                .sum();
+    }
+}
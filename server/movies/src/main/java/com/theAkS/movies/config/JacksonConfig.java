@@ -0,0 +1,49 @@
+package com.theAkS.movies.config;
+
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+@Configuration
+public class JacksonConfig {
+
+    // DTOs with @JsonFilter serialize every property unless the response supplies its own filter
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer propertyFilterDefaults() {
+        return builder -> builder.filters(new SimpleFilterProvider().setFailOnUnknownId(false));
+    }
+
+    /**
+     * Binary alternatives to JSON, picked by the Accept header (application/cbor,
+     * application/x-jackson-smile) for the same DTOs. Spring MVC registers these on its own when
+     * the dataformat modules are present, but with a plain mapper; these replace them with mappers
+     * built from the same customizers as the JSON one, so property filters and spring.jackson.*
+     * settings apply to every format.
+     */
+    @Configuration(proxyBeanMethods = false)
+    static class BinaryFormats {
+
+        @Bean
+        public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(
+                ObjectProvider<Jackson2ObjectMapperBuilderCustomizer> customizers) {
+            return new MappingJackson2CborHttpMessageConverter(customized(Jackson2ObjectMapperBuilder.cbor(), customizers).build());
+        }
+
+        @Bean
+        public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(
+                ObjectProvider<Jackson2ObjectMapperBuilderCustomizer> customizers) {
+            return new MappingJackson2SmileHttpMessageConverter(customized(Jackson2ObjectMapperBuilder.smile(), customizers).build());
+        }
+
+        private static Jackson2ObjectMapperBuilder customized(Jackson2ObjectMapperBuilder builder,
+                                                              ObjectProvider<Jackson2ObjectMapperBuilderCustomizer> customizers) {
+            customizers.orderedStream().forEach(customizer -> customizer.customize(builder));
+            return builder;
+        }
+    }
+}
@@ -1,17 +1,25 @@
 package com.theAkS.movies.config;
 
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
 import org.springframework.boot.orm.jpa.EntityManagerFactoryBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
 import org.springframework.orm.jpa.JpaTransactionManager;
 import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
 import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.util.StringUtils;
 
 import javax.sql.DataSource;
 import java.util.Objects;
@@ -25,6 +33,12 @@ import java.util.Objects;
 )
 public class JpaConfig {
 
+    @Value("${movies.postgres.connect-timeout-seconds:5}")
+    private int connectTimeoutSeconds;
+
+    @Value("${movies.postgres.socket-timeout-seconds:10}")
+    private int socketTimeoutSeconds;
+
     @Primary
     @Bean(name = "postgresDataSourceProperties")
     @ConfigurationProperties(prefix = "spring.datasource.postgres") // <-- Matches properties prefix
@@ -34,16 +48,47 @@ public class JpaConfig {
 
     @Primary
     @Bean(name = "postgresDataSource")
-    public DataSource postgresDataSource(
+    @ConfigurationProperties(prefix = "spring.datasource.postgres.hikari") // <-- Pool sizing and acquisition timeout
+    public HikariDataSource postgresDataSource(
             @Qualifier("postgresDataSourceProperties") DataSourceProperties dataSourceProperties) {
-        return dataSourceProperties.initializeDataSourceBuilder().build();
+        return buildHikariDataSource(dataSourceProperties);
+    }
+
+    @Bean(name = "postgresReplicaDataSourceProperties")
+    @ConfigurationProperties(prefix = "spring.datasource.postgres-replica")
+    public DataSourceProperties postgresReplicaDataSourceProperties() {
+        return new DataSourceProperties();
+    }
+
+    // Always defined and null without a replica url: an @ConditionalOnProperty here would be decided
+    // once by the fast-start AOT build, so a replica configured at deploy time would be ignored.
+    // The pool settings are bound by hand because @ConfigurationProperties cannot bind onto null.
+    @Bean(name = "postgresReplicaDataSource")
+    public HikariDataSource postgresReplicaDataSource(
+            @Qualifier("postgresReplicaDataSourceProperties") DataSourceProperties dataSourceProperties,
+            Environment environment) {
+        if (!StringUtils.hasText(dataSourceProperties.getUrl())) {
+            return null;
+        }
+        HikariDataSource dataSource = buildHikariDataSource(dataSourceProperties);
+        Binder.get(environment).bind("spring.datasource.postgres-replica.hikari", Bindable.ofInstance(dataSource));
+        return dataSource;
+    }
+
+    // readOnly transactions go to the replica when one is configured, otherwise everything uses the primary
+    @Bean(name = "postgresRoutingDataSource")
+    public DataSource postgresRoutingDataSource(
+            @Qualifier("postgresDataSource") DataSource primary,
+            @Qualifier("postgresReplicaDataSource") ObjectProvider<DataSource> replica) {
+        DataSource replicaOrPrimary = replica.getIfAvailable(() -> primary);
+        return new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(primary, replicaOrPrimary));
     }
 
     @Primary
     @Bean(name = "postgresEntityManagerFactory")
     public LocalContainerEntityManagerFactoryBean postgresEntityManagerFactory(
             EntityManagerFactoryBuilder builder,
-            @Qualifier("postgresDataSource") DataSource dataSource) {
+            @Qualifier("postgresRoutingDataSource") DataSource dataSource) {
         return builder
                 .dataSource(dataSource)
                 .packages("com.theAkS.movies.user") // <-- Scans ONLY for user @Entity
@@ -57,4 +102,17 @@ public class JpaConfig {
             @Qualifier("postgresEntityManagerFactory") LocalContainerEntityManagerFactoryBean entityManagerFactory) {
         return new JpaTransactionManager(Objects.requireNonNull(entityManagerFactory.getObject()));
     }
-}
\ No newline at end of file
+
+    private HikariDataSource buildHikariDataSource(DataSourceProperties dataSourceProperties) {
+        HikariDataSource dataSource = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        // pgjdbc-specific network timeouts (the H2 test datasource rejects unknown settings)
+        String url = dataSource.getJdbcUrl();
+        if (url != null && url.startsWith("jdbc:postgresql:")) {
+            dataSource.addDataSourceProperty("connectTimeout", connectTimeoutSeconds);
+            dataSource.addDataSourceProperty("socketTimeout", socketTimeoutSeconds);
+        }
+        return dataSource;
+    }
+}
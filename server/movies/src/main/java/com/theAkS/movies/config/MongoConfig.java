@@ -1,17 +1,26 @@
 package com.theAkS.movies.config;
 
 import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.ReadPreference;
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoClients;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.mongodb.MongoMetricsConnectionPoolListener;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.mongo.MongoProperties;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.data.mongodb.MongoDatabaseFactory;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.SimpleMongoClientDatabaseFactory;
 import org.springframework.data.mongodb.repository.config.EnableMongoRepositories;
 
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
 @Configuration
 @EnableMongoRepositories(
         // Scans ONLY movie/review packages
@@ -20,6 +29,30 @@ import org.springframework.data.mongodb.repository.config.EnableMongoRepositorie
 )
 public class MongoConfig {
 
+    @Value("${movies.mongo.pool.max-size:50}")
+    private int maxPoolSize;
+
+    @Value("${movies.mongo.pool.min-size:5}")
+    private int minPoolSize;
+
+    @Value("${movies.mongo.pool.max-wait-ms:2000}")
+    private long maxWaitMs;
+
+    @Value("${movies.mongo.connect-timeout-ms:3000}")
+    private int connectTimeoutMs;
+
+    @Value("${movies.mongo.socket-timeout-ms:5000}")
+    private int socketTimeoutMs;
+
+    @Value("${movies.mongo.server-selection-timeout-ms:3000}")
+    private long serverSelectionTimeoutMs;
+
+    @Value("${movies.mongo.catalog-read-preference:primary}")
+    private String catalogReadPreference;
+
+    @Value("${movies.mongo.catalog-max-staleness-seconds:0}")
+    private long catalogMaxStalenessSeconds;
+
     @Bean(name = "mongoProperties")
     @ConfigurationProperties(prefix = "spring.data.mongodb") // <-- Matches properties prefix
     public MongoProperties mongoProperties() {
@@ -27,8 +60,21 @@ public class MongoConfig {
     }
 
     @Bean(name = "mongoClient")
-    public MongoClient mongoClient(MongoProperties mongoProperties) {
-        return MongoClients.create(mongoProperties.getUri());
+    public MongoClient mongoClient(MongoProperties mongoProperties, MeterRegistry meterRegistry) {
+        MongoClientSettings settings = MongoClientSettings.builder()
+                .applyConnectionString(new ConnectionString(mongoProperties.getUri()))
+                .applyToConnectionPoolSettings(pool -> pool
+                        .maxSize(maxPoolSize)
+                        .minSize(minPoolSize)
+                        .maxWaitTime(maxWaitMs, TimeUnit.MILLISECONDS)
+                        .addConnectionPoolListener(new MongoMetricsConnectionPoolListener(meterRegistry)))
+                .applyToSocketSettings(socket -> socket
+                        .connectTimeout(connectTimeoutMs, TimeUnit.MILLISECONDS)
+                        .readTimeout(socketTimeoutMs, TimeUnit.MILLISECONDS))
+                .applyToClusterSettings(cluster -> cluster
+                        .serverSelectionTimeout(serverSelectionTimeoutMs, TimeUnit.MILLISECONDS))
+                .build();
+        return MongoClients.create(settings);
     }
 
     @Bean(name = "mongoDatabaseFactory")
@@ -40,8 +86,27 @@ public class MongoConfig {
         return new SimpleMongoClientDatabaseFactory(mongoClient, database);
     }
 
+    // Reads from the primary, so code that reads and then writes (review posting, the bucket
+    // migration, per-user history) never acts on data a secondary has not caught up with
     @Bean(name = "mongoTemplate")
+    @Primary
     public MongoTemplate mongoTemplate(MongoDatabaseFactory mongoDatabaseFactory) {
         return new MongoTemplate(mongoDatabaseFactory);
     }
-}
\ No newline at end of file
+
+    // Catalog-wide reads (lists, browse, suggest/similar rebuilds, snapshots) may be served by secondaries
+    @Bean(name = "catalogMongoTemplate")
+    public MongoTemplate catalogMongoTemplate(MongoDatabaseFactory mongoDatabaseFactory) {
+        MongoTemplate mongoTemplate = new MongoTemplate(mongoDatabaseFactory);
+        mongoTemplate.setReadPreference(catalogReadPreference());
+        return mongoTemplate;
+    }
+
+    private ReadPreference catalogReadPreference() {
+        if (catalogMaxStalenessSeconds <= 0) {
+            return ReadPreference.valueOf(catalogReadPreference);
+        }
+        // Mongo requires maxStaleness >= 90s, and it is not allowed with 'primary'
+        return ReadPreference.valueOf(catalogReadPreference, List.of(), catalogMaxStalenessSeconds, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,74 @@
+package com.theAkS.movies.config;
+
+import com.theAkS.movies.moderation.ReviewEnrichment;
+import com.theAkS.movies.movie.Movie;
+import com.theAkS.movies.review.Review;
+import com.theAkS.movies.review.ReviewBucket;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.index.PartialIndexFilter;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Creates the indexes declared with @Indexed on our documents. Spring Data no longer does this
+ * automatically, and running it after startup keeps an unreachable Mongo from blocking boot.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class MongoIndexInitializer {
+
+    private static final List<Class<?>> INDEXED_DOCUMENTS = List.of(Movie.class, ReviewBucket.class, ReviewEnrichment.class);
+
+    private final MongoTemplate mongoTemplate;
+
+    // Off the main thread the readiness probe does not wait for Mongo's server selection timeout
+    @Value("${movies.mongo.ensure-indexes-in-background:false}")
+    private boolean inBackground;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        if (inBackground) {
+            Thread thread = new Thread(this::ensureIndexes, "mongo-index-init");
+            thread.setDaemon(true);
+            thread.start();
+        } else {
+            ensureIndexes();
+        }
+    }
+
+    public void ensureIndexes() {
+        IndexResolver resolver = new MongoPersistentEntityIndexResolver(mongoTemplate.getConverter().getMappingContext());
+        for (Class<?> document : INDEXED_DOCUMENTS) {
+            try {
+                IndexOperations indexOps = mongoTemplate.indexOps(document);
+                resolver.resolveIndexFor(document).forEach(indexOps::ensureIndex);
+            } catch (RuntimeException e) {
+                log.warn("Could not ensure indexes for {}: {}", document.getSimpleName(), e.getMessage());
+            }
+        }
+        // Not an annotation on Review: that would also put a multikey copy on the reviews embedded in buckets
+        try {
+            mongoTemplate.indexOps(Review.class).ensureIndex(new Index()
+                    .on("authorId", Sort.Direction.ASC)
+                    .on("createdAt", Sort.Direction.DESC)
+                    .on("_id", Sort.Direction.DESC)
+                    .named(Review.AUTHOR_INDEX)
+                    .partial(PartialIndexFilter.of(Criteria.where("authorId").exists(true))));
+        } catch (RuntimeException e) {
+            log.warn("Could not ensure indexes for Review: {}", e.getMessage());
+        }
+    }
+}
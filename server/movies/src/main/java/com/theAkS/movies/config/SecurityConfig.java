@@ -2,8 +2,10 @@ package com.theAkS.movies.config;
 
 import com.theAkS.movies.auth.AuthEntryPointJwt;
 import com.theAkS.movies.auth.AuthTokenFilter;
+import com.theAkS.movies.support.ConcurrencyLimitFilter;
 import com.theAkS.movies.user.UserDetailsServiceImpl;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -33,6 +35,7 @@ public class SecurityConfig {
     private final UserDetailsServiceImpl userDetailsService;
     private final AuthEntryPointJwt unauthorizedHandler;
     private final AuthTokenFilter authTokenFilter;
+    private final ConcurrencyLimitFilter concurrencyLimitFilter;
 
     @Bean
     public DaoAuthenticationProvider authenticationProvider() {
@@ -42,6 +45,14 @@ public class SecurityConfig {
         return authProvider;
     }
 
+    // Runs inside the security chain only; as a plain servlet filter it would take a second permit
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilterRegistration() {
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(concurrencyLimitFilter);
+        registration.setEnabled(false);
+        return registration;
+    }
+
     @Bean
     public AuthenticationManager authenticationManager(AuthenticationConfiguration authConfig) throws Exception {
         return authConfig.getAuthenticationManager();
@@ -76,12 +87,20 @@ public class SecurityConfig {
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers("/auth/**").permitAll()
                         .requestMatchers(HttpMethod.GET, "/movies/**").permitAll()
+                        .requestMatchers(HttpMethod.POST, "/movies/batch").permitAll()
                         .requestMatchers("/reviews/**").permitAll()
+                        .requestMatchers("/moderation/**").hasAnyRole("MODERATOR", "ADMIN")
+                        .requestMatchers("/admin/**").hasRole("ADMIN")
+                        // Kubernetes probes; details stay hidden from anonymous callers
+                        .requestMatchers(HttpMethod.GET, "/actuator/health/liveness", "/actuator/health/readiness").permitAll()
+                        // Metrics, startup steps and request traces expose internals
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
                         .anyRequest().authenticated()
                 );
 
         http.authenticationProvider(authenticationProvider());
         http.addFilterBefore(authTokenFilter, UsernamePasswordAuthenticationFilter.class);
+        http.addFilterBefore(concurrencyLimitFilter, AuthTokenFilter.class);
 
         return http.build();
     }
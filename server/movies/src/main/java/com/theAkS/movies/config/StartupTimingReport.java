@@ -0,0 +1,70 @@
+package com.theAkS.movies.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Logs a time-to-ready breakdown once the application is ready: JVM start to ready, the top-level
+ * startup phases and the slowest bean instantiations. The full timeline stays available at
+ * /actuator/startup; Boot also publishes application.started.time and application.ready.time.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class StartupTimingReport implements ApplicationListener<ApplicationReadyEvent> {
+
+    private static final int SLOWEST_BEANS = 10;
+
+    private final ApplicationStartup applicationStartup;
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        StringBuilder report = new StringBuilder("Startup timing: ready in ")
+                .append(millis(event.getTimeTaken()))
+                .append(" (JVM uptime ").append(ManagementFactory.getRuntimeMXBean().getUptime()).append(" ms)");
+
+        if (applicationStartup instanceof BufferingApplicationStartup buffering) {
+            StartupTimeline timeline = buffering.getBufferedTimeline();
+            Map<String, Duration> phases = new LinkedHashMap<>();
+            timeline.getEvents().stream()
+                    .filter(step -> step.getStartupStep().getParentId() == null)
+                    .forEach(step -> phases.merge(step.getStartupStep().getName(), step.getDuration(), Duration::plus));
+            phases.forEach((name, duration) -> report.append("\n  phase ").append(name).append(": ").append(millis(duration)));
+
+            String slowestBeans = timeline.getEvents().stream()
+                    .filter(step -> "spring.beans.instantiate".equals(step.getStartupStep().getName()))
+                    .sorted(Comparator.comparing(StartupTimeline.TimelineEvent::getDuration).reversed())
+                    .limit(SLOWEST_BEANS)
+                    .map(step -> "\n  bean " + beanName(step) + ": " + millis(step.getDuration()))
+                    .collect(Collectors.joining());
+            report.append(slowestBeans);
+        }
+        log.info(report.toString());
+    }
+
+    private static String beanName(StartupTimeline.TimelineEvent step) {
+        for (var tag : step.getStartupStep().getTags()) {
+            if ("beanName".equals(tag.getKey())) {
+                return tag.getValue();
+            }
+        }
+        return "?";
+    }
+
+    private static String millis(Duration duration) {
+        return duration == null ? "n/a" : duration.toMillis() + " ms";
+    }
+}
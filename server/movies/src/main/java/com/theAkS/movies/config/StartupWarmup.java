@@ -0,0 +1,187 @@
+package com.theAkS.movies.config;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.theAkS.movies.auth.JwtUtils;
+import com.theAkS.movies.dto.MovieDto;
+import com.theAkS.movies.movie.Movie;
+import com.theAkS.movies.movie.MovieBrowseCache;
+import com.theAkS.movies.movie.MovieFields;
+import com.theAkS.movies.movie.MovieService;
+import com.theAkS.movies.support.DependencyGuard;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Warms a new instance up before it takes traffic: opens the Mongo and Postgres pools, fills the
+ * browse cache, loads the most-reviewed movies through MovieService and runs the JWT and JSON
+ * serialization paths often enough for the JIT to compile them.
+ * <p>
+ * Runs in the background after startup. Until it finishes this indicator is OUT_OF_SERVICE, and it
+ * is part of the readiness group, so /actuator/health/readiness keeps the instance out of the load
+ * balancer meanwhile. Individual steps are best effort: a failing dependency ends its step, not the
+ * warm-up.
+ */
+@Component("warmup")
+@Slf4j
+public class StartupWarmup implements HealthIndicator {
+
+    private final MovieService movieService;
+    private final MovieBrowseCache movieBrowseCache;
+    private final MongoTemplate mongoTemplate;
+    private final HikariDataSource postgresDataSource;
+    private final DependencyGuard dependencyGuard;
+    private final JwtUtils jwtUtils;
+    private final ObjectWriter movieWriter;
+
+    private final boolean enabled;
+    private final int movieCount;
+    private final int iterations;
+
+    private volatile boolean finished;
+    private volatile long durationMs;
+    private volatile int moviesTarget;
+    private volatile int moviesLoaded;
+    private volatile int failedSteps;
+
+    public StartupWarmup(MovieService movieService,
+                         MovieBrowseCache movieBrowseCache,
+                         MongoTemplate mongoTemplate,
+                         HikariDataSource postgresDataSource,
+                         DependencyGuard dependencyGuard,
+                         JwtUtils jwtUtils,
+                         ObjectMapper objectMapper,
+                         MeterRegistry meterRegistry,
+                         @Value("${movies.warmup.enabled:true}") boolean enabled,
+                         @Value("${movies.warmup.movies:50}") int movieCount,
+                         @Value("${movies.warmup.iterations:2000}") int iterations) {
+        this.movieService = movieService;
+        this.movieBrowseCache = movieBrowseCache;
+        this.mongoTemplate = mongoTemplate;
+        this.postgresDataSource = postgresDataSource;
+        this.dependencyGuard = dependencyGuard;
+        this.jwtUtils = jwtUtils;
+        // The DTOs and the ?fields= filter, as MovieController responses are written
+        this.movieWriter = objectMapper.writer(MovieFields.ALL.filter());
+        this.enabled = enabled;
+        this.movieCount = movieCount;
+        this.iterations = iterations;
+        this.finished = !enabled;
+
+        TimeGauge.builder("movies.warmup.duration", this, TimeUnit.MILLISECONDS, warmup -> warmup.durationMs)
+                .register(meterRegistry);
+        Gauge.builder("movies.warmup.coverage", this, StartupWarmup::coverage)
+                .description("Share of the targeted hot movies that were loaded")
+                .register(meterRegistry);
+        Gauge.builder("movies.warmup.failed.steps", this, warmup -> warmup.failedSteps).register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        if (!enabled) {
+            return;
+        }
+        Thread thread = new Thread(this::warmUp, "startup-warmup");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public Health health() {
+        Health.Builder health = finished ? Health.up() : Health.outOfService();
+        return health
+                .withDetail("durationMs", durationMs)
+                .withDetail("moviesLoaded", moviesLoaded)
+                .withDetail("moviesTarget", moviesTarget)
+                .withDetail("failedSteps", failedSteps)
+                .build();
+    }
+
+    void warmUp() {
+        long start = System.nanoTime();
+        try {
+            step("mongo pool", () -> mongoTemplate.executeCommand("{ ping: 1 }"));
+            step("postgres pool", this::openPostgresPool);
+            step("browse cache", movieBrowseCache::refresh);
+            step("hot movies", this::loadHotMovies);
+            step("jwt", this::exerciseJwt);
+        } finally {
+            durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            finished = true;
+            log.info("Warm-up finished in {} ms: {}/{} hot movies loaded, {} failed steps",
+                    durationMs, moviesLoaded, moviesTarget, failedSteps);
+        }
+    }
+
+    private void step(String name, Runnable step) {
+        try {
+            step.run();
+        } catch (RuntimeException e) {
+            failedSteps++;
+            log.warn("Warm-up step '{}' failed: {}", name, e.getMessage());
+        }
+    }
+
+    private void openPostgresPool() {
+        dependencyGuard.postgres(() -> {
+            try (Connection connection = postgresDataSource.getConnection()) {
+                return connection.isValid(1);
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    // Featured = most reviewed, the best guess for what a fresh instance is asked for first
+    private void loadHotMovies() {
+        List<Movie> hot = movieBrowseCache.featured(movieCount);
+        moviesTarget = hot.size();
+        for (Movie summary : hot) {
+            movieService.singleMovie(summary.getImdbID()).ifPresent(movie -> {
+                serialize(MovieDto.from(movie));
+                moviesLoaded++;
+            });
+        }
+        // Serialization of the list views the home page requests
+        List<MovieDto> hotDtos = hot.stream().map(MovieDto::from).collect(Collectors.toList());
+        for (int i = 0; i < iterations / 100; i++) {
+            serialize(hotDtos);
+        }
+    }
+
+    // The same single verify-and-parse call AuthTokenFilter makes per request
+    private void exerciseJwt() {
+        for (int i = 0; i < iterations; i++) {
+            jwtUtils.verifiedSubject(jwtUtils.generateTokenFromUsername("warmup"));
+        }
+    }
+
+    private void serialize(Object value) {
+        try {
+            movieWriter.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private double coverage() {
+        return moviesTarget == 0 ? (finished ? 1.0 : 0.0) : (double) moviesLoaded / moviesTarget;
+    }
+}
@@ -0,0 +1,16 @@
+package com.theAkS.movies.dto;
+
+import lombok.Value;
+
+import java.time.Instant;
+
+@Value
+public class EnrichmentDeadLetterDto {
+    String id;
+    String reviewId;
+    String imdbId;
+    String stage;
+    String error;
+    int attempts;
+    Instant failedAt;
+}
@@ -0,0 +1,10 @@
+package com.theAkS.movies.dto;
+
+import lombok.Value;
+
+@Value
+public class MovieBatchResultDto {
+    String imdbID;
+    boolean found;
+    MovieDto movie; // null when found is false
+}
@@ -0,0 +1,14 @@
+package com.theAkS.movies.dto;
+
+import lombok.Value;
+
+import java.util.List;
+
+@Value
+public class MovieDetailDto {
+    MovieDto movie;
+    ReviewPageDto reviews; // first page; null when degraded
+    ReviewStatsDto reviewStats; // null when degraded
+    List<SimilarMovieDto> similar;
+    List<String> degraded; // parts left out because they failed or were too slow
+}
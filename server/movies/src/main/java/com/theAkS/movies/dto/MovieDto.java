@@ -1,10 +1,17 @@
 package com.theAkS.movies.dto;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.theAkS.movies.movie.Movie;
 import lombok.Value;
 import java.util.List;
+import java.util.stream.Collectors;
 
 @Value
+@JsonFilter(MovieDto.FIELDS_FILTER)
 public class MovieDto {
+    // Property filter for ?fields=; serializes everything unless a response sets it (see MovieFields)
+    public static final String FIELDS_FILTER = "movieFields";
+
     private String imdbID;
     private String title;
     private String releaseDate;
@@ -13,4 +20,21 @@ public class MovieDto {
     private List<String> genre;
     private List<String> backdrop;
     private List<ReviewDto> reviews;
+
+    public static MovieDto from(Movie movie) {
+        List<ReviewDto> reviewDtos = movie.getReviewIds().stream()
+                .map(review -> new ReviewDto(review.getBody()))
+                .collect(Collectors.toList());
+
+        return new MovieDto(
+                movie.getImdbID(),
+                movie.getTitle(),
+                movie.getReleaseDate(),
+                movie.getTrailerLink(),
+                movie.getPoster(),
+                movie.getGenres(),
+                movie.getBackdrops(),
+                reviewDtos
+        );
+    }
 }
\ No newline at end of file
@@ -0,0 +1,20 @@
+package com.theAkS.movies.dto;
+
+import lombok.Value;
+
+import java.time.Instant;
+import java.util.List;
+
+@Value
+public class ReviewEnrichmentDto {
+    String reviewId;
+    String imdbId;
+    String body;
+    double spamScore;
+    boolean duplicate;
+    double sentiment;
+    String flag;
+    List<String> reasons;
+    Instant enrichedAt;
+    String moderatedBy;
+}
@@ -0,0 +1,11 @@
+package com.theAkS.movies.dto;
+
+import lombok.Value;
+
+import java.util.List;
+
+@Value
+public class ReviewPageDto {
+    List<ReviewDto> reviews;
+    String next;
+}
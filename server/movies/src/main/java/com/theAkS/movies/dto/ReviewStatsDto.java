@@ -0,0 +1,11 @@
+package com.theAkS.movies.dto;
+
+import lombok.Value;
+
+@Value
+public class ReviewStatsDto {
+    long count; // enriched reviews, spam excluded
+    double averageSentiment; // -1 negative .. 1 positive
+    long positive;
+    long negative;
+}
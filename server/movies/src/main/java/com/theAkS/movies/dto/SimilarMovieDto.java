@@ -0,0 +1,11 @@
+package com.theAkS.movies.dto;
+
+import lombok.Value;
+
+@Value
+public class SimilarMovieDto {
+    String imdbID;
+    String title;
+    String poster;
+    float score; // higher is more similar
+}
@@ -0,0 +1,10 @@
+package com.theAkS.movies.dto;
+
+import lombok.Value;
+
+@Value
+public class TitleSuggestionDto {
+    String imdbID;
+    String title;
+    String poster;
+}
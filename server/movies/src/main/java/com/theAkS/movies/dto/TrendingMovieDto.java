@@ -0,0 +1,11 @@
+package com.theAkS.movies.dto;
+
+import lombok.Value;
+
+@Value
+public class TrendingMovieDto {
+    String imdbID;
+    String title;
+    String poster;
+    long score; // weighted views + reviews inside the requested window
+}
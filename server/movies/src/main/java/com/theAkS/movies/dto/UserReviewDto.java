@@ -0,0 +1,13 @@
+package com.theAkS.movies.dto;
+
+import lombok.Value;
+
+import java.time.Instant;
+
+@Value
+public class UserReviewDto {
+    String id;
+    String imdbId;
+    String body;
+    Instant createdAt;
+}
@@ -0,0 +1,11 @@
+package com.theAkS.movies.dto;
+
+import lombok.Value;
+
+import java.util.List;
+
+@Value
+public class UserReviewPageDto {
+    List<UserReviewDto> reviews;
+    String next;
+}
@@ -1,5 +1,9 @@
 package com.theAkS.movies.exception;
 
+import com.theAkS.movies.image.ImageCache;
+import com.theAkS.movies.support.SingleFlight;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -19,6 +23,27 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(body, HttpStatus.NOT_FOUND);
     }
 
+    @ExceptionHandler(SingleFlight.SingleFlightTimeoutException.class)
+    public ResponseEntity<?> singleFlightTimeoutException(SingleFlight.SingleFlightTimeoutException ex, WebRequest request) {
+        Map<String, String> body = new HashMap<>();
+        body.put("message", ex.getMessage());
+        return new ResponseEntity<>(body, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    @ExceptionHandler(ImageCache.ImageUnavailableException.class)
+    public ResponseEntity<?> imageUnavailableException(ImageCache.ImageUnavailableException ex, WebRequest request) {
+        Map<String, String> body = new HashMap<>();
+        body.put("message", ex.getMessage());
+        return new ResponseEntity<>(body, HttpStatus.BAD_GATEWAY);
+    }
+
+    @ExceptionHandler({BulkheadFullException.class, CallNotPermittedException.class})
+    public ResponseEntity<?> dependencyUnavailableException(RuntimeException ex, WebRequest request) {
+        Map<String, String> body = new HashMap<>();
+        body.put("message", "Service temporarily unavailable: " + ex.getMessage());
+        return new ResponseEntity<>(body, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<?> globalExceptionHandler(Exception ex, WebRequest request) {
         Map<String, String> body = new HashMap<>();
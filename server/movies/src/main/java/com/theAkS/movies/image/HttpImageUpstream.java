@@ -0,0 +1,182 @@
+package com.theAkS.movies.image;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fetches images over HTTP. With {@code movies.images.upstream-base-url} set, the scheme, host
+ * and port of every image URL are replaced by it (the path and query are kept), which points the
+ * proxy at a mirror or, in tests, at a local stub server.
+ * <p>
+ * {@code movies.images.fetch-timeout-ms} bounds the whole fetch. The request timeout only covers
+ * the response headers, so the body is read from a subscriber queue that every read polls with
+ * the time left; an upstream that stalls or drips the body is cancelled at the deadline.
+ */
+@Component
+public class HttpImageUpstream implements ImageUpstream {
+
+    private final HttpClient httpClient;
+    private final Duration timeout;
+    private final URI baseUrl;
+
+    public HttpImageUpstream(@Value("${movies.images.fetch-timeout-ms:5000}") long timeoutMs,
+                             @Value("${movies.images.upstream-base-url:}") String baseUrl) {
+        this.timeout = Duration.ofMillis(timeoutMs);
+        this.baseUrl = baseUrl.isBlank() ? null : URI.create(baseUrl);
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(timeout)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+    }
+
+    @Override
+    public String fetch(URI url, Path target, long maxBytes) throws IOException {
+        URI resolved = resolve(url);
+        if (!"http".equals(resolved.getScheme()) && !"https".equals(resolved.getScheme())) {
+            throw new IOException("Unsupported image URL " + url);
+        }
+        long deadline = System.nanoTime() + timeout.toNanos();
+        HttpRequest request = HttpRequest.newBuilder(resolved).timeout(timeout).GET().build();
+        HttpResponse<Flow.Publisher<List<ByteBuffer>>> response;
+        try {
+            response = httpClient.send(request, HttpResponse.BodyHandlers.ofPublisher());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while fetching " + resolved, e);
+        }
+        BodyReader body = new BodyReader(deadline, resolved);
+        response.body().subscribe(body);
+        try {
+            if (response.statusCode() != 200) {
+                throw new IOException("Upstream returned " + response.statusCode() + " for " + resolved);
+            }
+            String contentType = response.headers().firstValue("Content-Type").orElse("");
+            if (!contentType.startsWith("image/")) {
+                throw new IOException("Upstream returned '" + contentType + "' for " + resolved);
+            }
+            if (response.headers().firstValueAsLong("Content-Length").orElse(0) > maxBytes) {
+                throw new IOException("Image larger than " + maxBytes + " bytes: " + resolved);
+            }
+            copy(body, target, maxBytes, resolved);
+            return contentType;
+        } finally {
+            // Releases the connection when the body was rejected or not read to the end
+            body.cancel();
+        }
+    }
+
+    private URI resolve(URI url) {
+        if (baseUrl == null) {
+            return url;
+        }
+        return baseUrl.resolve(url.getRawPath() + (url.getRawQuery() == null ? "" : "?" + url.getRawQuery()));
+    }
+
+    // Content-Length may be missing or wrong, so the limit is enforced while copying too
+    private static void copy(BodyReader body, Path target, long maxBytes, URI url) throws IOException {
+        long total = 0;
+        try (FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE)) {
+            for (List<ByteBuffer> buffers; (buffers = body.next()) != null; ) {
+                for (ByteBuffer buffer : buffers) {
+                    total += buffer.remaining();
+                    if (total > maxBytes) {
+                        throw new IOException("Image larger than " + maxBytes + " bytes: " + url);
+                    }
+                    while (buffer.hasRemaining()) {
+                        out.write(buffer);
+                    }
+                }
+            }
+        }
+    }
+
+    /** Hands the body to the reading thread one chunk at a time; each read waits until the deadline at most. */
+    private static final class BodyReader implements Flow.Subscriber<List<ByteBuffer>> {
+        private static final Object END = new Object();
+
+        private final BlockingQueue<Object> chunks = new LinkedBlockingQueue<>();
+        private final long deadline;
+        private final URI url;
+        private volatile Flow.Subscription subscription;
+        private volatile boolean cancelled;
+
+        BodyReader(long deadline, URI url) {
+            this.deadline = deadline;
+            this.url = url;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            if (cancelled) {
+                subscription.cancel();
+            } else {
+                subscription.request(1);
+            }
+        }
+
+        @Override
+        public void onNext(List<ByteBuffer> buffers) {
+            chunks.add(buffers);
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            chunks.add(error);
+        }
+
+        @Override
+        public void onComplete() {
+            chunks.add(END);
+        }
+
+        /** The next chunk of the body, or null at its end. */
+        @SuppressWarnings("unchecked")
+        List<ByteBuffer> next() throws IOException {
+            Object chunk;
+            try {
+                chunk = chunks.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while reading " + url, e);
+            }
+            if (chunk == null) {
+                throw new HttpTimeoutException("Timed out reading " + url);
+            }
+            if (chunk == END) {
+                return null;
+            }
+            if (chunk instanceof Throwable error) {
+                throw error instanceof IOException io ? io : new IOException("Failed reading " + url, error);
+            }
+            subscription.request(1);
+            return (List<ByteBuffer>) chunk;
+        }
+
+        void cancel() {
+            cancelled = true;
+            Flow.Subscription current = subscription;
+            if (current != null) {
+                current.cancel();
+            }
+        }
+    }
+}
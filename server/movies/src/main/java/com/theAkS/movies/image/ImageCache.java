@@ -0,0 +1,298 @@
+package com.theAkS.movies.image;
+
+import com.theAkS.movies.support.SingleFlight;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Size-bounded LRU cache of remote images on local disk. Each image is fetched from the
+ * {@link ImageUpstream} once, concurrent misses for the same URL share a single fetch, and the
+ * least recently served images are evicted once the directory exceeds {@code max-cache-bytes}.
+ * <p>
+ * Files are named {@code <sha-256 of url>-<hex millis>.<ext>}, so the index can be rebuilt from
+ * the directory after a restart and a refetched image never reuses the name of the file it
+ * replaces. Hits bump the file's modification time (at most once a minute), which is the LRU order
+ * the index is rebuilt in. Evicted files are deleted after a grace period because a response may
+ * still be sending them; until then their modification time is zero, so a restart drops them.
+ */
+@Component
+@Slf4j
+public class ImageCache {
+
+    // Raster types only: SVG can carry script and these are served from our own origin
+    private static final Map<String, String> EXTENSIONS = Map.of(
+            "image/jpeg", "jpg",
+            "image/png", "png",
+            "image/gif", "gif",
+            "image/webp", "webp",
+            "image/avif", "avif");
+    private static final Pattern FILE_NAME = Pattern.compile("([0-9a-f]{64})-([0-9a-f]+)\\.([a-z]+)");
+    private static final long EVICTED_GRACE_MS = 60_000;
+    private static final long TOUCH_INTERVAL_MS = 60_000;
+    private static final FileTime RETIRED = FileTime.fromMillis(0);
+
+    private final ImageUpstream upstream;
+    private final Path directory;
+    private final long maxBytes;
+    private final long maxImageBytes;
+    private final SingleFlight<String, CachedImage> fetches;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+    private final Timer fetchTimer;
+
+    // Access-ordered, so iteration starts at the least recently used image; guarded by this
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long totalBytes;
+    private final Queue<Retired> retired = new ConcurrentLinkedQueue<>();
+
+    public ImageCache(ImageUpstream upstream,
+                      MeterRegistry meterRegistry,
+                      @Value("${movies.images.cache-dir:data/images}") Path directory,
+                      @Value("${movies.images.max-cache-bytes:1073741824}") long maxBytes,
+                      @Value("${movies.images.max-image-bytes:10485760}") long maxImageBytes,
+                      @Value("${movies.images.fetch-timeout-ms:5000}") long fetchTimeoutMs) {
+        this.upstream = upstream;
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        this.maxImageBytes = maxImageBytes;
+        // Waiters give up a little after the fetch itself would have timed out
+        this.fetches = new SingleFlight<>("images", Duration.ofMillis(fetchTimeoutMs + 1000), meterRegistry);
+        this.hits = Counter.builder("movies.images.cache").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("movies.images.cache").tag("result", "miss").register(meterRegistry);
+        this.evictions = Counter.builder("movies.images.evictions").register(meterRegistry);
+        this.fetchTimer = Timer.builder("movies.images.fetch").register(meterRegistry);
+        Gauge.builder("movies.images.cache.bytes", this, ImageCache::bytes).register(meterRegistry);
+        Gauge.builder("movies.images.cache.entries", this, ImageCache::entryCount).register(meterRegistry);
+        load();
+    }
+
+    public record CachedImage(Path path, String contentType, long size, String etag) {
+    }
+
+    /** The cached copy of {@code url}, fetching it first on a miss. */
+    public CachedImage get(String url) {
+        String key = key(url);
+        Entry cached = lookup(key);
+        if (cached != null) {
+            hits.increment();
+            touch(cached);
+            return cached.image;
+        }
+        misses.increment();
+        return fetches.execute(key, () -> {
+            // A fetch that finished just before this one started has already stored it
+            Entry stored = lookup(key);
+            return stored != null ? stored.image : fetch(key, url);
+        });
+    }
+
+    private synchronized Entry lookup(String key) {
+        return entries.get(key);
+    }
+
+    private static void touch(Entry entry) {
+        long now = System.currentTimeMillis();
+        if (now - entry.touchedAt < TOUCH_INTERVAL_MS) {
+            return;
+        }
+        entry.touchedAt = now;
+        try {
+            Files.setLastModifiedTime(entry.image.path(), FileTime.fromMillis(now));
+        } catch (IOException e) {
+            // Only the order after a restart suffers
+        }
+    }
+
+    private synchronized long bytes() {
+        return totalBytes;
+    }
+
+    private synchronized int entryCount() {
+        return entries.size();
+    }
+
+    private CachedImage fetch(String key, String url) {
+        Path temp = directory.resolve(key + ".tmp-" + Long.toHexString(System.nanoTime()));
+        long start = System.nanoTime();
+        try {
+            String contentType = mediaType(upstream.fetch(URI.create(url), temp, maxImageBytes));
+            String extension = EXTENSIONS.get(contentType);
+            if (extension == null) {
+                throw new ImageUnavailableException("Unsupported image type " + contentType + " for " + url);
+            }
+            Path file = directory.resolve(key + "-" + Long.toHexString(System.currentTimeMillis()) + "." + extension);
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+            CachedImage image = describe(file);
+            store(key, image, System.currentTimeMillis());
+            return image;
+        } catch (IOException | IllegalArgumentException e) {
+            throw new ImageUnavailableException("Could not fetch " + url + ": " + e.getMessage());
+        } finally {
+            fetchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            deleteQuietly(temp);
+        }
+    }
+
+    private synchronized void store(String key, CachedImage image, long touchedAt) {
+        Entry previous = entries.put(key, new Entry(image, touchedAt));
+        if (previous != null) {
+            totalBytes -= previous.image.size();
+            retire(previous.image);
+        }
+        totalBytes += image.size();
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (totalBytes > maxBytes && entries.size() > 1) {
+            CachedImage evicted = eldest.next().image;
+            eldest.remove();
+            totalBytes -= evicted.size();
+            retire(evicted);
+            evictions.increment();
+        }
+    }
+
+    private void retire(CachedImage image) {
+        try {
+            Files.setLastModifiedTime(image.path(), RETIRED);
+        } catch (IOException e) {
+            // Deleted below anyway, unless the process stops first
+        }
+        retired.add(new Retired(image.path(), System.currentTimeMillis()));
+    }
+
+    @Scheduled(fixedDelay = 30_000)
+    public void deleteEvicted() {
+        long cutoff = System.currentTimeMillis() - EVICTED_GRACE_MS;
+        for (Retired file = retired.peek(); file != null && file.retiredAt() < cutoff; file = retired.peek()) {
+            retired.poll();
+            deleteQuietly(file.path());
+        }
+    }
+
+    // Rebuilds the index from disk, oldest first, and trims it to the size limit
+    private void load() {
+        List<Path> files = new ArrayList<>();
+        try {
+            Files.createDirectories(directory);
+            try (Stream<Path> listing = Files.list(directory)) {
+                listing.forEach(files::add);
+            }
+            files.sort(Comparator.comparing(ImageCache::lastModified));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot use image cache directory " + directory, e);
+        }
+        for (Path file : files) {
+            Matcher name = FILE_NAME.matcher(file.getFileName().toString());
+            long modified = lastModified(file);
+            if (!name.matches() || !EXTENSIONS.containsValue(name.group(3)) || modified <= 0) {
+                // Evicted before the last shutdown, unfinished downloads, anything not ours to serve
+                deleteQuietly(file);
+                continue;
+            }
+            try {
+                store(name.group(1), describe(file), modified);
+            } catch (IOException e) {
+                deleteQuietly(file);
+            }
+        }
+        for (Retired file = retired.poll(); file != null; file = retired.poll()) {
+            deleteQuietly(file.path());
+        }
+        log.info("Image cache at {} holds {} images, {} bytes", directory.toAbsolutePath(), entryCount(), bytes());
+    }
+
+    private static CachedImage describe(Path file) throws IOException {
+        Matcher name = FILE_NAME.matcher(file.getFileName().toString());
+        if (!name.matches()) {
+            throw new IOException("Unexpected file " + file);
+        }
+        long size = Files.size(file);
+        String contentType = EXTENSIONS.entrySet().stream()
+                .filter(entry -> entry.getValue().equals(name.group(3)))
+                .findFirst().orElseThrow().getKey();
+        // Name and size change whenever the content can, so they make a strong validator
+        String etag = "\"" + name.group(1).substring(0, 16) + "-" + name.group(2) + "-" + Long.toHexString(size) + "\"";
+        return new CachedImage(file.toAbsolutePath(), contentType, size, etag);
+    }
+
+    private static String key(String url) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(url.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String mediaType(String contentType) {
+        int parameters = contentType.indexOf(';');
+        return (parameters < 0 ? contentType : contentType.substring(0, parameters)).trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static long lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete {}: {}", file, e.getMessage());
+        }
+    }
+
+    private static final class Entry {
+        private final CachedImage image;
+        private volatile long touchedAt;
+
+        private Entry(CachedImage image, long touchedAt) {
+            this.image = image;
+            this.touchedAt = touchedAt;
+        }
+    }
+
+    private record Retired(Path path, long retiredAt) {
+    }
+
+    public static class ImageUnavailableException extends RuntimeException {
+        public ImageUnavailableException(String message) {
+            super(message);
+        }
+    }
+}
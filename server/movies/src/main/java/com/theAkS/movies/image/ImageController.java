@@ -0,0 +1,88 @@
+package com.theAkS.movies.image;
+
+import com.theAkS.movies.movie.Movie;
+import com.theAkS.movies.movie.MovieFields;
+import com.theAkS.movies.movie.MovieService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Serves movie posters and backdrops from {@link ImageCache}. Only URLs stored on a movie can be
+ * requested, so this is not an open proxy. Bodies go out with Tomcat's sendfile when the
+ * connector supports it, so the image is copied from the page cache to the socket by the kernel.
+ */
+@RestController
+@RequestMapping("movies")
+public class ImageController {
+
+    private static final MovieFields IMAGE_FIELDS = MovieFields.parse("poster,backdrop").orElseThrow();
+
+    // Tomcat sends the named file itself once the servlet returns
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final MovieService movieService;
+    private final ImageCache imageCache;
+    private final String cacheControl;
+
+    public ImageController(MovieService movieService,
+                           ImageCache imageCache,
+                           @Value("${movies.images.max-age-seconds:604800}") long maxAgeSeconds) {
+        this.movieService = movieService;
+        this.imageCache = imageCache;
+        this.cacheControl = "public, max-age=" + maxAgeSeconds;
+    }
+
+    @GetMapping("/{imdbId}/poster")
+    public void getPoster(@PathVariable String imdbId, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        serve(movieService.singleMovie(imdbId, IMAGE_FIELDS).map(Movie::getPoster), request, response);
+    }
+
+    @GetMapping("/{imdbId}/backdrops/{index}")
+    public void getBackdrop(@PathVariable String imdbId, @PathVariable int index,
+                            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Optional<String> url = movieService.singleMovie(imdbId, IMAGE_FIELDS)
+                .map(Movie::getBackdrops)
+                .filter(backdrops -> index >= 0 && index < backdrops.size())
+                .map((List<String> backdrops) -> backdrops.get(index));
+        serve(url, request, response);
+    }
+
+    private void serve(Optional<String> url, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (url.isEmpty() || url.get().isBlank()) {
+            // Not sendError: the error dispatch to /error would be rejected by Spring Security
+            response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        ImageCache.CachedImage image = imageCache.get(url.get());
+        response.setHeader(HttpHeaders.ETAG, image.etag());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+        if (image.etag().equals(request.getHeader(HttpHeaders.IF_NONE_MATCH))) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        response.setContentType(image.contentType());
+        response.setContentLengthLong(image.size());
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            request.setAttribute(SENDFILE_FILENAME, image.path().toString());
+            request.setAttribute(SENDFILE_START, 0L);
+            request.setAttribute(SENDFILE_END, image.size());
+            return;
+        }
+        try (FileChannel file = FileChannel.open(image.path(), StandardOpenOption.READ)) {
+            file.transferTo(0, image.size(), Channels.newChannel(response.getOutputStream()));
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.theAkS.movies.image;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Path;
+
+/**
+ * Where {@link ImageCache} gets images it does not have yet. The default is {@link HttpImageUpstream};
+ * declare another bean to replace it.
+ */
+public interface ImageUpstream {
+
+    /**
+     * Downloads {@code url} into {@code target} and returns its content type. Fails with an
+     * IOException when the image is unavailable, is not an image, or is larger than {@code maxBytes}.
+     */
+    String fetch(URI url, Path target, long maxBytes) throws IOException;
+}
@@ -0,0 +1,26 @@
+package com.theAkS.movies.logging;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link AsyncAppender} that counts what it drops. With {@code neverBlock} a request thread only
+ * pays for formatting the message and an offer into the bounded queue; once the queue is past the
+ * discarding threshold INFO and below are dropped, and when it is completely full everything is.
+ * The count is read before the offer, so under contention it is an estimate.
+ */
+public class DroppingAsyncAppender extends AsyncAppender {
+
+    static final AtomicLong DROPPED = new AtomicLong();
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        int remaining = getRemainingCapacity();
+        if ((remaining < getDiscardingThreshold() && isDiscardable(event)) || (remaining == 0 && isNeverBlock())) {
+            DROPPED.incrementAndGet();
+        }
+        super.append(event);
+    }
+}
@@ -0,0 +1,124 @@
+package com.theAkS.movies.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs before a log event is created, so a denied event costs a map lookup and nothing else.
+ * <ul>
+ *   <li>INFO and below are sampled per logger: {@code sampling} is a list like
+ *   {@code com.theAkS.movies.auth=0.1,org.springframework.security=0.01}, the longest matching
+ *   prefix wins and unlisted loggers keep everything.</li>
+ *   <li>WARN and ERROR are rate limited per logger and message template: at most {@code burst}
+ *   events per {@code windowMs}; the rest are dropped and reported as one summary line when the
+ *   template shows up again in a later window.</li>
+ * </ul>
+ * Configured from {@code logback-spring.xml}; counts are exposed by {@link LoggingMetrics}.
+ */
+public class LogSamplingFilter extends TurboFilter {
+
+    private static final int MAX_TRACKED_TEMPLATES = 10_000;
+    private static final String SUMMARY = "Suppressed {} repeats of \"{}\" in the last {} ms";
+
+    static final AtomicLong SAMPLED_OUT = new AtomicLong();
+    static final AtomicLong RATE_LIMITED = new AtomicLong();
+
+    private final Map<String, Double> ratesByLogger = new ConcurrentHashMap<>();
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+    private Map<String, Double> ratesByPrefix = Map.of();
+    private int burst = 5;
+    private long windowMs = 60_000;
+
+    public void setSampling(String sampling) {
+        Map<String, Double> rates = new ConcurrentHashMap<>();
+        if (sampling != null) {
+            for (String entry : sampling.split(",")) {
+                int separator = entry.indexOf('=');
+                if (separator > 0) {
+                    rates.put(entry.substring(0, separator).strip(),
+                            Double.parseDouble(entry.substring(separator + 1).strip()));
+                }
+            }
+        }
+        this.ratesByPrefix = rates;
+        this.ratesByLogger.clear();
+    }
+
+    public void setBurst(int burst) {
+        this.burst = burst;
+    }
+
+    public void setWindowMs(long windowMs) {
+        this.windowMs = windowMs;
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        // Level checks happen after turbo filters; don't spend anything on events that fail them
+        if (level == null || format == null || !logger.isEnabledFor(level)) {
+            return FilterReply.NEUTRAL;
+        }
+        if (level.isGreaterOrEqual(Level.WARN)) {
+            return burst > 0 ? rateLimit(logger, format) : FilterReply.NEUTRAL;
+        }
+        double rate = ratesByLogger.computeIfAbsent(logger.getName(), this::rateFor);
+        if (rate < 1.0 && ThreadLocalRandom.current().nextDouble() >= rate) {
+            SAMPLED_OUT.incrementAndGet();
+            return FilterReply.DENY;
+        }
+        return FilterReply.NEUTRAL;
+    }
+
+    private FilterReply rateLimit(Logger logger, String format) {
+        // The summary line itself goes through this filter; never limit it
+        if (format == SUMMARY) {
+            return FilterReply.NEUTRAL;
+        }
+        if (windows.size() > MAX_TRACKED_TEMPLATES) {
+            windows.clear();
+        }
+        Window window = windows.computeIfAbsent(logger.getName() + '|' + format, key -> new Window());
+        long now = System.currentTimeMillis();
+        long started = window.startedAt.get();
+        if (now - started >= windowMs && window.startedAt.compareAndSet(started, now)) {
+            window.count.set(0);
+            long suppressed = window.suppressed.getAndSet(0);
+            if (suppressed > 0) {
+                logger.warn(SUMMARY, suppressed, format, now - started);
+            }
+        }
+        if (window.count.incrementAndGet() <= burst) {
+            return FilterReply.NEUTRAL;
+        }
+        window.suppressed.incrementAndGet();
+        RATE_LIMITED.incrementAndGet();
+        return FilterReply.DENY;
+    }
+
+    private double rateFor(String loggerName) {
+        String best = null;
+        for (String prefix : ratesByPrefix.keySet()) {
+            boolean matches = loggerName.equals(prefix)
+                    || (loggerName.startsWith(prefix) && loggerName.charAt(prefix.length()) == '.');
+            if (matches && (best == null || prefix.length() > best.length())) {
+                best = prefix;
+            }
+        }
+        return best == null ? 1.0 : ratesByPrefix.get(best);
+    }
+
+    private static final class Window {
+        private final AtomicLong startedAt = new AtomicLong(System.currentTimeMillis());
+        private final AtomicInteger count = new AtomicInteger();
+        private final AtomicLong suppressed = new AtomicLong();
+    }
+}
@@ -0,0 +1,39 @@
+package com.theAkS.movies.logging;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes what the logging pipeline throws away: {@code movies.logging.dropped} (async queue
+ * full), {@code movies.logging.sampled_out} and {@code movies.logging.rate_limited}, plus the
+ * async queue depth when the {@code ASYNC} appender is configured.
+ */
+@Component
+public class LoggingMetrics {
+
+    public LoggingMetrics(MeterRegistry meterRegistry) {
+        counter(meterRegistry, "movies.logging.dropped", DroppingAsyncAppender.DROPPED,
+                "Log events dropped because the async queue was full");
+        counter(meterRegistry, "movies.logging.sampled_out", LogSamplingFilter.SAMPLED_OUT,
+                "INFO and lower log events skipped by per-logger sampling");
+        counter(meterRegistry, "movies.logging.rate_limited", LogSamplingFilter.RATE_LIMITED,
+                "Repeated WARN and ERROR log events suppressed");
+
+        if (LoggerFactory.getILoggerFactory() instanceof LoggerContext context
+                && context.getLogger(Logger.ROOT_LOGGER_NAME).getAppender("ASYNC") instanceof DroppingAsyncAppender async) {
+            Gauge.builder("movies.logging.queue.depth", async, appender -> appender.getNumberOfElementsInQueue())
+                    .register(meterRegistry);
+        }
+    }
+
+    private static void counter(MeterRegistry meterRegistry, String name, AtomicLong count, String description) {
+        FunctionCounter.builder(name, count, AtomicLong::get).description(description).register(meterRegistry);
+    }
+}
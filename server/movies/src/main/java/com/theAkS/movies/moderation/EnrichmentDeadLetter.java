@@ -0,0 +1,30 @@
+package com.theAkS.movies.moderation;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.bson.types.ObjectId;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/** A review that failed an enrichment stage on every attempt; moderators can resubmit it. */
+@Document(collection = "review_enrichment_dead_letters")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EnrichmentDeadLetter {
+    @Id
+    private ObjectId id;
+    private ObjectId reviewId;
+    private String imdbId;
+    private Long authorId;
+    private String body;
+    private String stage;
+    private String error;
+    private int attempts;
+    private Instant failedAt;
+}
@@ -0,0 +1,17 @@
+package com.theAkS.movies.moderation;
+
+/**
+ * One step of the review enrichment pipeline. Every bean implementing this joins the pipeline in
+ * {@link org.springframework.core.annotation.Order} order; a stage can be switched off with
+ * {@code movies.enrichment.disabled-stages}, so a replacement only has to be registered as a bean.
+ * <p>
+ * Implementations are called from several worker threads at once and must be thread-safe. An
+ * exception fails the attempt; the pipeline retries and eventually dead-letters the review.
+ */
+public interface EnrichmentStage {
+
+    /** Short name used in properties ({@code movies.enrichment.parallelism.<name>}) and metric tags. */
+    String name();
+
+    void process(ReviewEnrichment enrichment) throws Exception;
+}
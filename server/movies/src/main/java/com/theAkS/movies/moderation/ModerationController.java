@@ -0,0 +1,87 @@
+package com.theAkS.movies.moderation;
+
+import com.theAkS.movies.dto.EnrichmentDeadLetterDto;
+import com.theAkS.movies.dto.ReviewEnrichmentDto;
+import lombok.RequiredArgsConstructor;
+import org.bson.types.ObjectId;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+// Moderator queue fed by the review enrichment pipeline; restricted to ROLE_MODERATOR and ROLE_ADMIN
+@RestController
+@RequestMapping("moderation")
+@RequiredArgsConstructor
+public class ModerationController {
+
+    private static final int MAX_LIMIT = 200;
+
+    private final ModerationService moderationService;
+
+    @GetMapping("/reviews")
+    public ResponseEntity<List<ReviewEnrichmentDto>> getReviews(@RequestParam(defaultValue = "FLAGGED") ModerationFlag flag,
+                                                                @RequestParam(defaultValue = "50") int limit) {
+        List<ReviewEnrichmentDto> reviews = moderationService.reviews(flag, Math.min(Math.max(limit, 1), MAX_LIMIT)).stream()
+                .map(this::convertToDto)
+                .collect(Collectors.toList());
+        return ResponseEntity.ok(reviews);
+    }
+
+    @PutMapping("/reviews/{reviewId}/flag")
+    public ResponseEntity<ReviewEnrichmentDto> setFlag(@PathVariable String reviewId,
+                                                       @RequestParam ModerationFlag flag,
+                                                       Authentication authentication) {
+        if (!ObjectId.isValid(reviewId)) {
+            return ResponseEntity.notFound().build();
+        }
+        return moderationService.setFlag(new ObjectId(reviewId), flag, authentication.getName())
+                .map(this::convertToDto)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/dead-letters")
+    public ResponseEntity<List<EnrichmentDeadLetterDto>> getDeadLetters(@RequestParam(defaultValue = "50") int limit) {
+        List<EnrichmentDeadLetterDto> deadLetters = moderationService.deadLetters(Math.min(Math.max(limit, 1), MAX_LIMIT)).stream()
+                .map(deadLetter -> new EnrichmentDeadLetterDto(
+                        deadLetter.getId().toHexString(),
+                        deadLetter.getReviewId().toHexString(),
+                        deadLetter.getImdbId(),
+                        deadLetter.getStage(),
+                        deadLetter.getError(),
+                        deadLetter.getAttempts(),
+                        deadLetter.getFailedAt()))
+                .collect(Collectors.toList());
+        return ResponseEntity.ok(deadLetters);
+    }
+
+    @PostMapping("/dead-letters/{id}/retry")
+    public ResponseEntity<Void> retryDeadLetter(@PathVariable String id) {
+        if (!ObjectId.isValid(id)) {
+            return ResponseEntity.notFound().build();
+        }
+        return switch (moderationService.retry(new ObjectId(id))) {
+            case QUEUED -> ResponseEntity.status(HttpStatus.ACCEPTED).build();
+            case NOT_FOUND -> ResponseEntity.notFound().build();
+            case PIPELINE_FULL -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        };
+    }
+
+    private ReviewEnrichmentDto convertToDto(ReviewEnrichment enrichment) {
+        return new ReviewEnrichmentDto(
+                enrichment.getReviewId().toHexString(),
+                enrichment.getImdbId(),
+                enrichment.getBody(),
+                enrichment.getSpamScore(),
+                enrichment.isDuplicate(),
+                enrichment.getSentiment(),
+                enrichment.getFlag() == null ? null : enrichment.getFlag().name(),
+                enrichment.getReasons(),
+                enrichment.getEnrichedAt(),
+                enrichment.getModeratedBy());
+    }
+}
@@ -0,0 +1,7 @@
+package com.theAkS.movies.moderation;
+
+public enum ModerationFlag {
+    CLEAN,
+    FLAGGED, // shown, but queued for a moderator to look at
+    SPAM     // duplicate or clearly promotional
+}
@@ -0,0 +1,88 @@
+package com.theAkS.movies.moderation;
+
+import com.theAkS.movies.support.DependencyGuard;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+@Service
+@RequiredArgsConstructor
+public class ModerationService {
+
+    public enum RetryResult {
+        QUEUED,
+        NOT_FOUND,
+        PIPELINE_FULL
+    }
+
+    private final MongoTemplate mongoTemplate;
+    private final DependencyGuard dependencyGuard;
+    private final ReviewEnrichmentPipeline pipeline;
+
+    // Newest first; served by the (flag, enrichedAt) index
+    public List<ReviewEnrichment> reviews(ModerationFlag flag, int limit) {
+        Query query = Query.query(Criteria.where("flag").is(flag))
+                .with(Sort.by(Sort.Direction.DESC, "enrichedAt"))
+                .limit(limit);
+        return dependencyGuard.mongo(() -> mongoTemplate.find(query, ReviewEnrichment.class));
+    }
+
+    // Reads only the (imdbId, flag, sentiment) index, never the enrichment documents
+    public ReviewStats reviewStats(String imdbId) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("imdbId").is(imdbId).and("flag").ne(ModerationFlag.SPAM)),
+                Aggregation.project("sentiment").andExclude("_id"),
+                Aggregation.group()
+                        .count().as("count")
+                        .avg("sentiment").as("averageSentiment")
+                        .sum(ConditionalOperators.when(Criteria.where("sentiment").gt(0.2)).then(1).otherwise(0)).as("positive")
+                        .sum(ConditionalOperators.when(Criteria.where("sentiment").lt(-0.2)).then(1).otherwise(0)).as("negative"));
+        Document stats = dependencyGuard.mongo(() -> mongoTemplate.aggregate(aggregation, ReviewEnrichment.class, Document.class)
+                .getUniqueMappedResult());
+        if (stats == null) {
+            return ReviewStats.EMPTY;
+        }
+        return new ReviewStats(((Number) stats.get("count")).longValue(),
+                ((Number) stats.get("averageSentiment")).doubleValue(),
+                ((Number) stats.get("positive")).longValue(),
+                ((Number) stats.get("negative")).longValue());
+    }
+
+    public Optional<ReviewEnrichment> setFlag(ObjectId reviewId, ModerationFlag flag, String moderator) {
+        Update update = new Update().set("flag", flag).set("moderatedBy", moderator).set("moderatedAt", Instant.now());
+        return dependencyGuard.mongo(() -> Optional.ofNullable(mongoTemplate.findAndModify(
+                Query.query(Criteria.where("_id").is(reviewId)), update,
+                FindAndModifyOptions.options().returnNew(true), ReviewEnrichment.class)));
+    }
+
+    public List<EnrichmentDeadLetter> deadLetters(int limit) {
+        Query query = new Query().with(Sort.by(Sort.Direction.DESC, "failedAt")).limit(limit);
+        return dependencyGuard.mongo(() -> mongoTemplate.find(query, EnrichmentDeadLetter.class));
+    }
+
+    // The dead letter is only removed once the pipeline has accepted the review again
+    public RetryResult retry(ObjectId deadLetterId) {
+        EnrichmentDeadLetter deadLetter = dependencyGuard.mongo(() -> mongoTemplate.findById(deadLetterId, EnrichmentDeadLetter.class));
+        if (deadLetter == null) {
+            return RetryResult.NOT_FOUND;
+        }
+        if (!pipeline.resubmit(deadLetter)) {
+            return RetryResult.PIPELINE_FULL;
+        }
+        dependencyGuard.mongo(() -> mongoTemplate.remove(deadLetter));
+        return RetryResult.QUEUED;
+    }
+}
@@ -0,0 +1,46 @@
+package com.theAkS.movies.moderation;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.Set;
+
+/** Turns the earlier signals into the flag moderators filter on. */
+@Component
+@Order(40)
+public class ModerationStage implements EnrichmentStage {
+
+    private static final Set<String> ABUSIVE = Set.of("idiot", "moron", "scum", "kill yourself", "retard");
+
+    private final double spamThreshold;
+    private final double flagThreshold;
+
+    public ModerationStage(@Value("${movies.enrichment.spam-threshold:0.8}") double spamThreshold,
+                           @Value("${movies.enrichment.flag-threshold:0.4}") double flagThreshold) {
+        this.spamThreshold = spamThreshold;
+        this.flagThreshold = flagThreshold;
+    }
+
+    @Override
+    public String name() {
+        return "moderation";
+    }
+
+    @Override
+    public void process(ReviewEnrichment enrichment) {
+        String lower = enrichment.getNormalizedBody().toLowerCase(Locale.ROOT);
+        boolean abusive = ABUSIVE.stream().anyMatch(lower::contains);
+        if (abusive) {
+            enrichment.getReasons().add("abusive language");
+        }
+        if (enrichment.isDuplicate() || enrichment.getSpamScore() >= spamThreshold) {
+            enrichment.setFlag(ModerationFlag.SPAM);
+        } else if (abusive || enrichment.getSpamScore() >= flagThreshold) {
+            enrichment.setFlag(ModerationFlag.FLAGGED);
+        } else {
+            enrichment.setFlag(ModerationFlag.CLEAN);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.theAkS.movies.moderation;
+
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.text.Normalizer;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Canonical form of the body for the later stages: NFKC, no control characters, single spaces.
+ * The hash ignores case and punctuation so trivially edited copies still count as duplicates.
+ */
+@Component
+@Order(10)
+public class NormalizationStage implements EnrichmentStage {
+
+    private static final Pattern CONTROL = Pattern.compile("\\p{Cc}|\\p{Cf}");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern NOT_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    @Override
+    public String name() {
+        return "normalize";
+    }
+
+    @Override
+    public void process(ReviewEnrichment enrichment) throws Exception {
+        String body = enrichment.getBody() == null ? "" : enrichment.getBody();
+        String normalized = Normalizer.normalize(body, Normalizer.Form.NFKC);
+        normalized = CONTROL.matcher(normalized).replaceAll(" ");
+        normalized = WHITESPACE.matcher(normalized).replaceAll(" ").strip();
+        enrichment.setNormalizedBody(normalized);
+
+        String canonical = NOT_WORD.matcher(normalized.toLowerCase(Locale.ROOT)).replaceAll("");
+        byte[] digest = MessageDigest.getInstance("SHA-256").digest(canonical.getBytes(StandardCharsets.UTF_8));
+        enrichment.setBodyHash(HexFormat.of().formatHex(digest));
+    }
+}
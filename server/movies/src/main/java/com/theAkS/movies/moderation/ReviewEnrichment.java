@@ -0,0 +1,51 @@
+package com.theAkS.movies.moderation;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.bson.types.ObjectId;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * What the enrichment pipeline learned about one review. Stored next to the review (same _id)
+ * rather than inside it, so it works for both review storage modes.
+ */
+@Document(collection = "review_enrichments")
+@CompoundIndex(name = "flag_enrichedAt", def = "{'flag': 1, 'enrichedAt': -1}")
+@CompoundIndex(name = "imdbId_flag_sentiment", def = "{'imdbId': 1, 'flag': 1, 'sentiment': 1}")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReviewEnrichment {
+    @Id
+    private ObjectId reviewId;
+    private String imdbId;
+    private Long authorId; // null for anonymous reviews
+    private String body;
+    private String normalizedBody;
+    @Indexed
+    private String bodyHash;
+    private double spamScore; // 0 = clean, 1 = certainly spam
+    private boolean duplicate;
+    private double sentiment; // -1 negative .. 1 positive
+    private ModerationFlag flag;
+
+    @Builder.Default
+    private List<String> reasons = new ArrayList<>();
+
+    private Instant submittedAt;
+    private Instant enrichedAt;
+
+    // Set when a moderator overrides the flag
+    private String moderatedBy;
+    private Instant moderatedAt;
+}
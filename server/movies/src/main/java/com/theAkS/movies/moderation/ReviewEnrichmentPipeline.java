@@ -0,0 +1,282 @@
+package com.theAkS.movies.moderation;
+
+import com.theAkS.movies.review.Review;
+import com.theAkS.movies.support.DependencyGuard;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.env.Environment;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Enriches new reviews in the background so POST /reviews only pays for the insert. Each
+ * {@link EnrichmentStage}, followed by a final store step, gets its own bounded queue and
+ * {@code movies.enrichment.parallelism.<stage>} worker threads; a worker hands its result to the
+ * next queue and blocks while that queue is full, so a slow stage backs up the ones before it
+ * instead of growing memory.
+ * <p>
+ * A failed stage is retried in place with exponential backoff; after {@code max-attempts} the
+ * review goes to the dead-letter collection for a moderator to resubmit. When the first queue is
+ * full, {@link #submit} drops the review (counted in {@code movies.enrichment.rejected}) rather
+ * than slowing the request down. Work still queued at shutdown is lost, like rejected work.
+ * <p>
+ * The workers are started and stopped by the application context ({@link SmartLifecycle}), not
+ * by the constructor, so none run against a half-built context. Reviews submitted before the
+ * start wait in the first queue.
+ */
+@Component
+@Slf4j
+public class ReviewEnrichmentPipeline implements SmartLifecycle {
+
+    private final MongoTemplate mongoTemplate;
+    private final DependencyGuard dependencyGuard;
+    private final boolean enabled;
+    private final int maxAttempts;
+    private final long retryBackoffMs;
+    private final List<Lane> lanes = new ArrayList<>();
+    private final List<Thread> workers = new ArrayList<>();
+    private final Counter rejected;
+    private final Timer endToEnd;
+
+    private volatile boolean running;
+
+    public ReviewEnrichmentPipeline(List<EnrichmentStage> stages,
+                                    MongoTemplate mongoTemplate,
+                                    DependencyGuard dependencyGuard,
+                                    MeterRegistry meterRegistry,
+                                    Environment environment,
+                                    @Value("${movies.enrichment.enabled:true}") boolean enabled,
+                                    @Value("${movies.enrichment.queue-capacity:1000}") int queueCapacity,
+                                    @Value("${movies.enrichment.max-attempts:3}") int maxAttempts,
+                                    @Value("${movies.enrichment.retry-backoff-ms:200}") long retryBackoffMs,
+                                    @Value("${movies.enrichment.disabled-stages:}") List<String> disabledStages) {
+        this.mongoTemplate = mongoTemplate;
+        this.dependencyGuard = dependencyGuard;
+        this.enabled = enabled;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.retryBackoffMs = retryBackoffMs;
+        this.rejected = Counter.builder("movies.enrichment.rejected")
+                .description("Reviews not enriched because the first stage queue was full")
+                .register(meterRegistry);
+        this.endToEnd = Timer.builder("movies.enrichment.end_to_end").register(meterRegistry);
+
+        List<EnrichmentStage> active = new ArrayList<>();
+        for (EnrichmentStage stage : stages) {
+            if (!disabledStages.contains(stage.name())) {
+                active.add(stage);
+            }
+        }
+        active.add(new StoreStage());
+        for (EnrichmentStage stage : active) {
+            int parallelism = environment.getProperty("movies.enrichment.parallelism." + stage.name(), Integer.class, 1);
+            lanes.add(new Lane(stage, Math.max(1, parallelism), queueCapacity, meterRegistry));
+        }
+    }
+
+    /** Queues a freshly created review; false when enrichment is off or the pipeline is saturated. */
+    public boolean submit(String imdbId, Review review) {
+        return submit(ReviewEnrichment.builder()
+                .reviewId(review.getId())
+                .imdbId(imdbId)
+                .authorId(review.getAuthorId())
+                .body(review.getBody())
+                .submittedAt(Instant.now())
+                .build());
+    }
+
+    public boolean resubmit(EnrichmentDeadLetter deadLetter) {
+        return submit(ReviewEnrichment.builder()
+                .reviewId(deadLetter.getReviewId())
+                .imdbId(deadLetter.getImdbId())
+                .authorId(deadLetter.getAuthorId())
+                .body(deadLetter.getBody())
+                .submittedAt(Instant.now())
+                .build());
+    }
+
+    public List<String> stageNames() {
+        return lanes.stream().map(lane -> lane.stage.name()).toList();
+    }
+
+    private boolean submit(ReviewEnrichment enrichment) {
+        if (!enabled) {
+            return false;
+        }
+        if (!lanes.get(0).queue.offer(new Task(enrichment))) {
+            rejected.increment();
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (!enabled || running) {
+            return;
+        }
+        running = true;
+        for (int index = 0; index < lanes.size(); index++) {
+            Lane lane = lanes.get(index);
+            Lane next = index + 1 < lanes.size() ? lanes.get(index + 1) : null;
+            for (int worker = 1; worker <= lane.parallelism; worker++) {
+                Thread thread = new Thread(() -> work(lane, next), "enrich-" + lane.stage.name() + "-" + worker);
+                thread.setDaemon(true);
+                thread.start();
+                workers.add(thread);
+            }
+        }
+        log.info("Review enrichment pipeline started with stages {}", stageNames());
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        workers.forEach(Thread::interrupt);
+        for (Thread worker : workers) {
+            try {
+                // A worker only waits on its queue or a retry backoff, both end on the interrupt
+                worker.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        workers.clear();
+        log.info("Review enrichment pipeline stopped");
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void work(Lane lane, Lane next) {
+        try {
+            while (running) {
+                Task task = lane.queue.take();
+                lane.lag.record(System.nanoTime() - task.enqueuedAt, TimeUnit.NANOSECONDS);
+                if (!process(lane, task)) {
+                    continue;
+                }
+                lane.processed.increment();
+                if (next != null) {
+                    task.enqueuedAt = System.nanoTime();
+                    next.queue.put(task);
+                } else {
+                    endToEnd.record(System.nanoTime() - task.submittedAt, TimeUnit.NANOSECONDS);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // True when the stage succeeded; false when the task was dead-lettered
+    private boolean process(Lane lane, Task task) throws InterruptedException {
+        for (int attempt = 1; ; attempt++) {
+            long start = System.nanoTime();
+            try {
+                lane.stage.process(task.enrichment);
+                lane.duration.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                return true;
+            } catch (Exception e) {
+                lane.failures.increment();
+                if (attempt >= maxAttempts) {
+                    deadLetter(lane, task, attempt, e);
+                    return false;
+                }
+                lane.retries.increment();
+                Thread.sleep(retryBackoffMs << (attempt - 1));
+            }
+        }
+    }
+
+    private void deadLetter(Lane lane, Task task, int attempts, Exception cause) {
+        lane.deadLetters.increment();
+        ReviewEnrichment enrichment = task.enrichment;
+        EnrichmentDeadLetter deadLetter = EnrichmentDeadLetter.builder()
+                .reviewId(enrichment.getReviewId())
+                .imdbId(enrichment.getImdbId())
+                .authorId(enrichment.getAuthorId())
+                .body(enrichment.getBody())
+                .stage(lane.stage.name())
+                .error(String.valueOf(cause.getMessage()))
+                .attempts(attempts)
+                .failedAt(Instant.now())
+                .build();
+        try {
+            dependencyGuard.mongo(() -> mongoTemplate.insert(deadLetter));
+        } catch (RuntimeException e) {
+            log.warn("Could not dead-letter review {} after stage '{}' failed: {}",
+                    enrichment.getReviewId(), lane.stage.name(), e.getMessage());
+        }
+    }
+
+    /** Last step of every pipeline: persists the finished enrichment. */
+    private final class StoreStage implements EnrichmentStage {
+
+        @Override
+        public String name() {
+            return "store";
+        }
+
+        @Override
+        public void process(ReviewEnrichment enrichment) {
+            enrichment.setEnrichedAt(Instant.now());
+            dependencyGuard.mongo(() -> mongoTemplate.save(enrichment));
+        }
+    }
+
+    private static final class Task {
+        private final ReviewEnrichment enrichment;
+        private final long submittedAt = System.nanoTime();
+        private long enqueuedAt = submittedAt;
+
+        private Task(ReviewEnrichment enrichment) {
+            this.enrichment = enrichment;
+        }
+    }
+
+    /** A stage with its input queue, workers and per-stage meters (all tagged stage=<name>). */
+    private static final class Lane {
+        private final EnrichmentStage stage;
+        private final int parallelism;
+        private final BlockingQueue<Task> queue;
+        private final Counter processed;
+        private final Counter failures;
+        private final Counter retries;
+        private final Counter deadLetters;
+        private final Timer duration;
+        private final Timer lag;
+
+        private Lane(EnrichmentStage stage, int parallelism, int queueCapacity, MeterRegistry meterRegistry) {
+            this.stage = stage;
+            this.parallelism = parallelism;
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+            String name = stage.name();
+            this.processed = Counter.builder("movies.enrichment.processed").tag("stage", name).register(meterRegistry);
+            this.failures = Counter.builder("movies.enrichment.failures").tag("stage", name).register(meterRegistry);
+            this.retries = Counter.builder("movies.enrichment.retries").tag("stage", name).register(meterRegistry);
+            this.deadLetters = Counter.builder("movies.enrichment.dead_letters").tag("stage", name).register(meterRegistry);
+            this.duration = Timer.builder("movies.enrichment.stage").tag("stage", name).register(meterRegistry);
+            // Time spent waiting in this stage's queue
+            this.lag = Timer.builder("movies.enrichment.lag").tag("stage", name).register(meterRegistry);
+            meterRegistry.gauge("movies.enrichment.queue.depth", Tags.of("stage", name), queue, BlockingQueue::size);
+        }
+    }
+}
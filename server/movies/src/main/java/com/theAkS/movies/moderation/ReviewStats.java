@@ -0,0 +1,10 @@
+package com.theAkS.movies.moderation;
+
+/**
+ * Aggregates over a movie's enriched, non-spam reviews. Sentiment runs from -1 to 1; reviews
+ * above 0.2 count as positive and below -0.2 as negative.
+ */
+public record ReviewStats(long count, double averageSentiment, long positive, long negative) {
+
+    public static final ReviewStats EMPTY = new ReviewStats(0, 0, 0, 0);
+}
@@ -0,0 +1,61 @@
+package com.theAkS.movies.moderation;
+
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Lexicon sentiment: positive minus negative words over all opinion words, with a negation
+ * ("not", "never", ...) flipping the next opinion word. Crude, but local and allocation-light;
+ * register another EnrichmentStage and disable this one for a real model.
+ */
+@Component
+@Order(30)
+public class SentimentStage implements EnrichmentStage {
+
+    private static final Set<String> POSITIVE = Set.of(
+            "good", "great", "excellent", "amazing", "awesome", "brilliant", "love", "loved", "best", "fantastic",
+            "masterpiece", "beautiful", "enjoyed", "fun", "funny", "wonderful", "perfect", "stunning", "touching",
+            "recommend", "superb", "classic", "gripping", "moving");
+    private static final Set<String> NEGATIVE = Set.of(
+            "bad", "terrible", "awful", "boring", "worst", "hate", "hated", "waste", "poor", "dull", "horrible",
+            "disappointing", "disappointed", "stupid", "mess", "weak", "predictable", "slow", "overrated", "annoying");
+    private static final Set<String> NEGATIONS = Set.of("not", "never", "no", "isn't", "wasn't", "don't", "didn't", "hardly");
+
+    @Override
+    public String name() {
+        return "sentiment";
+    }
+
+    @Override
+    public void process(ReviewEnrichment enrichment) {
+        int positive = 0;
+        int negative = 0;
+        boolean negated = false;
+        for (String token : enrichment.getNormalizedBody().toLowerCase(Locale.ROOT).split("[^\\p{L}']+")) {
+            if (token.isEmpty()) {
+                continue;
+            }
+            if (NEGATIONS.contains(token)) {
+                negated = true;
+                continue;
+            }
+            int polarity = POSITIVE.contains(token) ? 1 : NEGATIVE.contains(token) ? -1 : 0;
+            if (polarity != 0) {
+                if (negated) {
+                    polarity = -polarity;
+                }
+                if (polarity > 0) {
+                    positive++;
+                } else {
+                    negative++;
+                }
+                negated = false;
+            }
+        }
+        int opinions = positive + negative;
+        enrichment.setSentiment(opinions == 0 ? 0 : (double) (positive - negative) / opinions);
+    }
+}
@@ -0,0 +1,154 @@
+package com.theAkS.movies.moderation;
+
+import com.theAkS.movies.support.DependencyGuard;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Heuristic spam score (links, shouting, repeated characters, sales phrases) plus duplicate
+ * detection by body hash, against stored enrichments and the hashes this instance saw recently
+ * (which covers copies still in flight). A copy only counts when it is of a review on the same
+ * movie or by the same signed-in author, and bodies shorter than {@code duplicate-min-length}
+ * are never duplicates: two people calling a film "Great movie!" is not spam.
+ */
+@Component
+@Order(20)
+public class SpamStage implements EnrichmentStage {
+
+    private static final int RECENT_HASHES = 10_000;
+    private static final Pattern LINK = Pattern.compile("https?://|www\\.", Pattern.CASE_INSENSITIVE);
+    private static final Pattern REPEATED = Pattern.compile("(.)\\1{5,}");
+    private static final List<String> SALES_PHRASES = List.of(
+            "buy now", "click here", "free money", "earn $", "work from home", "promo code", "discount code",
+            "subscribe to my", "follow me", "limited offer", "crypto");
+
+    private final MongoTemplate mongoTemplate;
+    private final DependencyGuard dependencyGuard;
+    private final int duplicateMinLength;
+
+    // (scope, hash) -> review id, insertion ordered so the oldest entry is evicted first
+    private final Map<RecentKey, String> recentHashes = Collections.synchronizedMap(new LinkedHashMap<>(1024, 0.75f, false) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<RecentKey, String> eldest) {
+            return size() > RECENT_HASHES;
+        }
+    });
+
+    public SpamStage(MongoTemplate mongoTemplate,
+                     DependencyGuard dependencyGuard,
+                     @Value("${movies.enrichment.duplicate-min-length:30}") int duplicateMinLength) {
+        this.mongoTemplate = mongoTemplate;
+        this.dependencyGuard = dependencyGuard;
+        this.duplicateMinLength = duplicateMinLength;
+    }
+
+    @Override
+    public String name() {
+        return "spam";
+    }
+
+    @Override
+    public void process(ReviewEnrichment enrichment) {
+        String body = enrichment.getNormalizedBody();
+        boolean duplicate = body.length() >= duplicateMinLength && duplicate(enrichment);
+
+        double score = 0;
+        List<String> reasons = enrichment.getReasons();
+
+        int links = count(LINK.matcher(body));
+        if (links > 0) {
+            score += Math.min(0.6, 0.3 * links);
+            reasons.add("links");
+        }
+        if (upperCaseShare(body) > 0.6 && body.length() >= 20) {
+            score += 0.2;
+            reasons.add("shouting");
+        }
+        if (REPEATED.matcher(body).find()) {
+            score += 0.2;
+            reasons.add("repeated characters");
+        }
+        String lower = body.toLowerCase(Locale.ROOT);
+        for (String phrase : SALES_PHRASES) {
+            if (lower.contains(phrase)) {
+                score += 0.4;
+                reasons.add("sales phrase");
+                break;
+            }
+        }
+        enrichment.setSpamScore(Math.min(1.0, score));
+
+        enrichment.setDuplicate(duplicate);
+        if (duplicate) {
+            reasons.add("duplicate");
+        }
+    }
+
+    // The in-memory check runs first and remembers the review under its own id, so a retry after a
+    // failed Mongo lookup finds its own entry and is not taken for a copy of itself
+    private boolean duplicate(ReviewEnrichment enrichment) {
+        String reviewId = enrichment.getReviewId().toHexString();
+        String hash = enrichment.getBodyHash();
+        boolean seen = seenRecently(new RecentKey(enrichment.getImdbId(), null, hash), reviewId);
+        if (enrichment.getAuthorId() != null) {
+            seen |= seenRecently(new RecentKey(null, enrichment.getAuthorId(), hash), reviewId);
+        }
+        return seen || storedDuplicate(enrichment);
+    }
+
+    private boolean seenRecently(RecentKey key, String reviewId) {
+        String seenBy = recentHashes.putIfAbsent(key, reviewId);
+        return seenBy != null && !seenBy.equals(reviewId);
+    }
+
+    private boolean storedDuplicate(ReviewEnrichment enrichment) {
+        Criteria sameScope = enrichment.getAuthorId() == null
+                ? Criteria.where("imdbId").is(enrichment.getImdbId())
+                : new Criteria().orOperator(
+                        Criteria.where("imdbId").is(enrichment.getImdbId()),
+                        Criteria.where("authorId").is(enrichment.getAuthorId()));
+        Query query = Query.query(Criteria.where("bodyHash").is(enrichment.getBodyHash())
+                .and("_id").ne(enrichment.getReviewId())
+                .andOperator(sameScope));
+        return dependencyGuard.mongo(() -> mongoTemplate.exists(query, ReviewEnrichment.class));
+    }
+
+    private static int count(Matcher matcher) {
+        int count = 0;
+        while (matcher.find()) {
+            count++;
+        }
+        return count;
+    }
+
+    private static double upperCaseShare(String body) {
+        int letters = 0;
+        int upper = 0;
+        for (int i = 0; i < body.length(); i++) {
+            char c = body.charAt(i);
+            if (Character.isLetter(c)) {
+                letters++;
+                if (Character.isUpperCase(c)) {
+                    upper++;
+                }
+            }
+        }
+        return letters == 0 ? 0 : (double) upper / letters;
+    }
+
+    // Exactly one of imdbId and authorId is set: a copy on the same movie, or by the same author
+    private record RecentKey(String imdbId, Long authorId, String bodyHash) {
+    }
+}
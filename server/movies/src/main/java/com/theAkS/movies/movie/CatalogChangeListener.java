@@ -0,0 +1,310 @@
+package com.theAkS.movies.movie;
+
+import com.mongodb.MongoException;
+import com.mongodb.MongoServerException;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.UpdateDescription;
+import com.theAkS.movies.review.Review;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps this instance's catalog caches in step with writes made on any instance by tailing a
+ * Mongo change stream on the movies and reviews collections. Added, removed or retitled movies
+ * invalidate the browse cache and the title suggest trie; any other movie or review write only
+ * the browse cache, whose featured list is ranked by review count. Dirty caches are rebuilt on
+ * the listener thread at most every {@code apply-interval-ms}, so a burst of reviews costs one
+ * refresh.
+ * <p>
+ * The resume token of the last event seen is kept across stream restarts (elections, network
+ * errors), so a reopened stream carries on without a gap. It is not persisted: a new process
+ * builds every cache from scratch anyway. When the server can no longer resume from the token,
+ * e.g. because the oplog has rolled past it, every cache is rebuilt, including the similar
+ * movies table, and the stream starts over from now.
+ * <p>
+ * Change streams need a replica set. Against a standalone server the listener logs once and
+ * stops; the caches still refresh on their own schedules.
+ */
+@Component
+@Slf4j
+public class CatalogChangeListener {
+
+    // Server errors after which the resume token is useless
+    private static final Set<Integer> UNRESUMABLE = Set.of(
+            136, // CappedPositionLost
+            260, // InvalidResumeToken
+            280, // ChangeStreamFatalError
+            286); // ChangeStreamHistoryLost
+    private static final int NOT_A_REPLICA_SET = 40573;
+    // Movie fields the title suggest trie is built from (besides review counts)
+    private static final Set<String> CATALOG_FIELDS = Set.of("imdbID", "title", "poster");
+    private static final long MAX_BACKOFF_MS = 30_000;
+
+    private final MongoTemplate mongoTemplate;
+    private final MovieService movieService;
+    private final MovieBrowseCache movieBrowseCache;
+    private final TitleSuggestIndex titleSuggestIndex;
+    private final SimilarMoviesIndex similarMoviesIndex;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final long applyIntervalNanos;
+    private final long pollMs;
+    private final String moviesCollection;
+    private final String reviewsCollection;
+    private final Timer lag;
+    private final Timer applyDelay;
+    private final Counter resyncs;
+
+    private volatile boolean running;
+    private volatile BsonDocument resumeToken;
+    private Thread thread;
+
+    // Listener thread only
+    private boolean browseDirty;
+    private boolean suggestDirty;
+    private boolean similarDirty;
+    private long dirtySince;
+    private long appliedAt;
+
+    public CatalogChangeListener(MongoTemplate mongoTemplate,
+                                 MovieService movieService,
+                                 MovieBrowseCache movieBrowseCache,
+                                 TitleSuggestIndex titleSuggestIndex,
+                                 SimilarMoviesIndex similarMoviesIndex,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${movies.coherence.enabled:true}") boolean enabled,
+                                 @Value("${movies.coherence.apply-interval-ms:5000}") long applyIntervalMs,
+                                 @Value("${movies.coherence.poll-ms:1000}") long pollMs) {
+        this.mongoTemplate = mongoTemplate;
+        this.movieService = movieService;
+        this.movieBrowseCache = movieBrowseCache;
+        this.titleSuggestIndex = titleSuggestIndex;
+        this.similarMoviesIndex = similarMoviesIndex;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.applyIntervalNanos = TimeUnit.MILLISECONDS.toNanos(applyIntervalMs);
+        this.pollMs = pollMs;
+        this.appliedAt = System.nanoTime() - applyIntervalNanos;
+        this.moviesCollection = mongoTemplate.getCollectionName(Movie.class);
+        this.reviewsCollection = mongoTemplate.getCollectionName(Review.class);
+        this.lag = Timer.builder("movies.coherence.lag")
+                .description("Time from a write on any instance to its change event reaching this one")
+                .register(meterRegistry);
+        this.applyDelay = Timer.builder("movies.coherence.apply.delay")
+                .description("Time from receiving a change event to the caches it invalidated being rebuilt")
+                .register(meterRegistry);
+        this.resyncs = Counter.builder("movies.coherence.resyncs")
+                .description("Full cache rebuilds because the change stream could not be resumed")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (!enabled || running) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this::run, "catalog-changes");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+            try {
+                thread.join(pollMs + 1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            thread = null;
+        }
+    }
+
+    BsonDocument resumeToken() {
+        return resumeToken;
+    }
+
+    private void run() {
+        long backoffMs = 100;
+        while (running) {
+            try {
+                stream();
+                backoffMs = 100;
+            } catch (MongoServerException e) {
+                if (e.getCode() == NOT_A_REPLICA_SET) {
+                    log.warn("Change streams need a replica set; catalog caches only refresh on their schedules");
+                    running = false;
+                    return;
+                }
+                if (UNRESUMABLE.contains(e.getCode())) {
+                    log.warn("Change stream cannot resume ({}); rebuilding all catalog caches", e.getMessage());
+                    resyncs.increment();
+                    resumeToken = null;
+                    invalidateAll();
+                    continue;
+                }
+                backoffMs = backOff(e, backoffMs);
+            } catch (MongoException e) {
+                backoffMs = backOff(e, backoffMs);
+            }
+        }
+    }
+
+    private long backOff(MongoException e, long backoffMs) {
+        if (running) {
+            log.warn("Change stream interrupted, reopening in {} ms: {}", backoffMs, e.getMessage());
+            try {
+                Thread.sleep(backoffMs);
+            } catch (InterruptedException interrupted) {
+                Thread.currentThread().interrupt();
+                running = false;
+            }
+        }
+        return Math.min(backoffMs * 2, MAX_BACKOFF_MS);
+    }
+
+    private void stream() {
+        ChangeStreamIterable<Document> changes = mongoTemplate.getDb()
+                // Database-wide events carry no collection name and must get through as well
+                .watch(List.of(Aggregates.match(Filters.or(
+                        Filters.in("ns.coll", moviesCollection, reviewsCollection),
+                        Filters.in("operationType", "dropDatabase", "invalidate")))))
+                .maxAwaitTime(pollMs, TimeUnit.MILLISECONDS);
+        BsonDocument token = resumeToken;
+        if (token != null) {
+            changes = changes.resumeAfter(token);
+        }
+        try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = changes.cursor()) {
+            while (running) {
+                ChangeStreamDocument<Document> event = cursor.tryNext();
+                if (event != null && !handle(event)) {
+                    // The stream is closed for good (database dropped); anything may have changed
+                    resumeToken = null;
+                    invalidateAll();
+                    return;
+                }
+                // Also moves forward on empty batches, so an idle stream resumes from "now"
+                BsonDocument latest = cursor.getResumeToken();
+                if (latest != null) {
+                    resumeToken = latest;
+                }
+                applyIfDue();
+            }
+        }
+    }
+
+    // False for an invalidate event, which ends the stream
+    private boolean handle(ChangeStreamDocument<Document> event) {
+        String collection = event.getNamespace() == null ? "" : event.getNamespace().getCollectionName();
+        Counter.builder("movies.coherence.events")
+                .tag("collection", collection)
+                .tag("operation", event.getOperationTypeString())
+                .register(meterRegistry)
+                .increment();
+        if (event.getWallTime() != null) {
+            lag.record(Math.max(0, System.currentTimeMillis() - event.getWallTime().getValue()), TimeUnit.MILLISECONDS);
+        } else if (event.getClusterTime() != null) {
+            lag.record(Math.max(0, System.currentTimeMillis() - event.getClusterTime().getTime() * 1000L), TimeUnit.MILLISECONDS);
+        }
+        switch (event.getOperationType()) {
+            case INVALIDATE -> {
+                return false;
+            }
+            case INSERT, REPLACE, DELETE -> {
+                if (collection.equals(moviesCollection)) {
+                    markDirty(true, false);
+                } else {
+                    markDirty(false, false);
+                }
+            }
+            case UPDATE -> markDirty(collection.equals(moviesCollection) && touchesCatalog(event.getUpdateDescription()), false);
+            default -> invalidateAll(); // drop, rename and anything newer servers add
+        }
+        return true;
+    }
+
+    private static boolean touchesCatalog(UpdateDescription update) {
+        if (update == null) {
+            return true;
+        }
+        if (update.getUpdatedFields() != null) {
+            for (String field : update.getUpdatedFields().keySet()) {
+                if (CATALOG_FIELDS.contains(topLevel(field))) {
+                    return true;
+                }
+            }
+        }
+        if (update.getRemovedFields() != null) {
+            for (String field : update.getRemovedFields()) {
+                if (CATALOG_FIELDS.contains(topLevel(field))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static String topLevel(String field) {
+        int dot = field.indexOf('.');
+        return dot < 0 ? field : field.substring(0, dot);
+    }
+
+    private void invalidateAll() {
+        markDirty(true, true);
+    }
+
+    private void markDirty(boolean catalog, boolean similar) {
+        if (!browseDirty) {
+            dirtySince = System.nanoTime();
+        }
+        browseDirty = true;
+        suggestDirty |= catalog;
+        similarDirty |= similar;
+    }
+
+    // A lone change is applied right away; a burst is coalesced into one rebuild per interval
+    private void applyIfDue() {
+        long now = System.nanoTime();
+        if (!browseDirty || now - appliedAt < applyIntervalNanos) {
+            return;
+        }
+        appliedAt = now;
+        try {
+            movieBrowseCache.refresh();
+            if (suggestDirty) {
+                titleSuggestIndex.rebuild(movieService.catalogVersion());
+            }
+            if (similarDirty) {
+                similarMoviesIndex.rebuild();
+            }
+            applyDelay.record(System.nanoTime() - dirtySince, TimeUnit.NANOSECONDS);
+            browseDirty = false;
+            suggestDirty = false;
+            similarDirty = false;
+        } catch (RuntimeException e) {
+            // Still dirty; retried after the next interval
+            log.warn("Catalog cache rebuild after change failed: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,337 @@
+package com.theAkS.movies.movie;
+
+import com.theAkS.movies.support.DependencyGuard;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.CRC32;
+
+/**
+ * Local copy of the catalog (movies without reviews) that MovieService falls back to when Mongo
+ * is unreachable, including right after startup. The snapshot is rewritten periodically and read
+ * through a memory-mapped file, so only the movies actually requested are decoded onto the heap.
+ * <p>
+ * File layout, all big-endian:
+ * <pre>
+ * header  int magic, int version, int count, int reserved, long createdAtMillis, long indexOffset, long crc32
+ * records count x { imdbID, id, title, releaseDate, trailerLink, poster, int n, n x genre, int n, n x backdrop }
+ * index   count x int record offset, sorted by the UTF-8 bytes of imdbID
+ * </pre>
+ * Strings are an int byte length (-1 for null) followed by UTF-8 bytes. The CRC covers everything
+ * after the header. Files are written to a temporary name and renamed over the old one, so
+ * readers only ever map a complete snapshot.
+ */
+@Component
+@Slf4j
+public class CatalogSnapshot {
+
+    private static final int MAGIC = 0x4D564E53; // "MVNS"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 40;
+
+    private final MongoTemplate mongoTemplate;
+    private final DependencyGuard dependencyGuard;
+    private final Path path;
+    private final boolean enabled;
+    private final Timer writeTimer;
+
+    private volatile Mapped current;
+
+    public CatalogSnapshot(@Qualifier("catalogMongoTemplate") MongoTemplate mongoTemplate,
+                           DependencyGuard dependencyGuard,
+                           MeterRegistry meterRegistry,
+                           @Value("${movies.snapshot.path:data/catalog.snapshot}") Path path,
+                           @Value("${movies.snapshot.enabled:true}") boolean enabled) {
+        this.mongoTemplate = mongoTemplate;
+        this.dependencyGuard = dependencyGuard;
+        this.path = path;
+        this.enabled = enabled;
+        this.writeTimer = Timer.builder("movies.snapshot.write").register(meterRegistry);
+        Gauge.builder("movies.snapshot.movies", this, snapshot -> snapshot.current == null ? 0 : snapshot.current.count)
+                .register(meterRegistry);
+        Gauge.builder("movies.snapshot.age.seconds", this, CatalogSnapshot::ageSeconds).register(meterRegistry);
+        if (enabled) {
+            load();
+        }
+    }
+
+    public boolean available() {
+        return current != null;
+    }
+
+    public Optional<Movie> find(String imdbId) {
+        Mapped snapshot = current;
+        return snapshot == null ? Optional.empty() : snapshot.find(imdbId);
+    }
+
+    public List<Movie> all() {
+        Mapped snapshot = current;
+        return snapshot == null ? List.of() : snapshot.all();
+    }
+
+    @Scheduled(fixedDelayString = "${movies.snapshot.refresh-interval-ms:600000}",
+            initialDelayString = "${movies.snapshot.initial-delay-ms:60000}")
+    public void scheduledWrite() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            write();
+        } catch (RuntimeException e) {
+            // The previous snapshot stays in place and keeps serving
+            log.warn("Catalog snapshot write failed: {}", e.getMessage());
+        }
+    }
+
+    public void write() {
+        Query query = new Query();
+        query.fields().exclude("reviewIds");
+        List<Movie> movies = dependencyGuard.mongo(() -> mongoTemplate.find(query, Movie.class));
+        writeTimer.record(() -> {
+            try {
+                writeFile(movies);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        load();
+        log.info("Catalog snapshot written with {} movies to {}", current == null ? 0 : current.count, path);
+    }
+
+    private void writeFile(List<Movie> movies) throws IOException {
+        // One record per imdbID, in index order
+        Map<String, Movie> unique = new LinkedHashMap<>();
+        for (Movie movie : movies) {
+            if (movie.getImdbID() != null) {
+                unique.putIfAbsent(movie.getImdbID(), movie);
+            }
+        }
+        List<byte[]> keys = new ArrayList<>(unique.size());
+        unique.keySet().forEach(imdbId -> keys.add(imdbId.getBytes(StandardCharsets.UTF_8)));
+        keys.sort(Arrays::compareUnsigned);
+
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(body);
+        int[] offsets = new int[keys.size()];
+        for (int i = 0; i < keys.size(); i++) {
+            offsets[i] = HEADER_SIZE + out.size();
+            writeRecord(out, unique.get(new String(keys.get(i), StandardCharsets.UTF_8)));
+        }
+        long indexOffset = HEADER_SIZE + out.size();
+        for (int offset : offsets) {
+            out.writeInt(offset);
+        }
+        out.flush();
+        byte[] payload = body.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE)
+                .putInt(MAGIC).putInt(VERSION).putInt(keys.size()).putInt(0)
+                .putLong(System.currentTimeMillis()).putLong(indexOffset).putLong(crc.getValue())
+                .flip();
+
+        Path directory = path.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(new ByteBuffer[]{header, ByteBuffer.wrap(payload)});
+            channel.force(true);
+            Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static void writeRecord(DataOutputStream out, Movie movie) throws IOException {
+        writeString(out, movie.getImdbID());
+        writeString(out, movie.getId() == null ? null : movie.getId().toHexString());
+        writeString(out, movie.getTitle());
+        writeString(out, movie.getReleaseDate());
+        writeString(out, movie.getTrailerLink());
+        writeString(out, movie.getPoster());
+        writeStrings(out, movie.getGenres());
+        writeStrings(out, movie.getBackdrops());
+    }
+
+    private static void writeStrings(DataOutputStream out, List<String> values) throws IOException {
+        List<String> list = values == null ? List.of() : values;
+        out.writeInt(list.size());
+        for (String value : list) {
+            writeString(out, value);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    // Maps the file if it exists and is intact; a corrupt or foreign file is ignored
+    private void load() {
+        if (!Files.isRegularFile(path)) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            current = Mapped.open(buffer);
+        } catch (IOException | IllegalStateException e) {
+            log.warn("Ignoring catalog snapshot {}: {}", path, e.getMessage());
+        }
+    }
+
+    private double ageSeconds() {
+        Mapped snapshot = current;
+        return snapshot == null ? Double.NaN : (System.currentTimeMillis() - snapshot.createdAt) / 1000.0;
+    }
+
+    /**
+     * Read side of one mapped snapshot file. Only absolute reads are used, so one instance is
+     * safe to share between request threads.
+     */
+    private static final class Mapped {
+        private final ByteBuffer buffer;
+        private final int count;
+        private final long createdAt;
+        private final int indexOffset;
+
+        private Mapped(ByteBuffer buffer, int count, long createdAt, int indexOffset) {
+            this.buffer = buffer;
+            this.count = count;
+            this.createdAt = createdAt;
+            this.indexOffset = indexOffset;
+        }
+
+        static Mapped open(ByteBuffer buffer) {
+            if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+                throw new IllegalStateException("not a catalog snapshot");
+            }
+            if (buffer.getInt(4) != VERSION) {
+                throw new IllegalStateException("unsupported snapshot version " + buffer.getInt(4));
+            }
+            int count = buffer.getInt(8);
+            long indexOffset = buffer.getLong(24);
+            if (indexOffset + 4L * count != buffer.capacity()) {
+                throw new IllegalStateException("truncated snapshot");
+            }
+            CRC32 crc = new CRC32();
+            crc.update(buffer.duplicate().position(HEADER_SIZE));
+            if (crc.getValue() != buffer.getLong(32)) {
+                throw new IllegalStateException("checksum mismatch");
+            }
+            return new Mapped(buffer, count, buffer.getLong(16), (int) indexOffset);
+        }
+
+        Optional<Movie> find(String imdbId) {
+            byte[] key = imdbId.getBytes(StandardCharsets.UTF_8);
+            int low = 0;
+            int high = count - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int record = buffer.getInt(indexOffset + 4 * mid);
+                int cmp = compareKey(record, key);
+                if (cmp < 0) {
+                    low = mid + 1;
+                } else if (cmp > 0) {
+                    high = mid - 1;
+                } else {
+                    return Optional.of(decode(record));
+                }
+            }
+            return Optional.empty();
+        }
+
+        List<Movie> all() {
+            List<Movie> movies = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                movies.add(decode(buffer.getInt(indexOffset + 4 * i)));
+            }
+            movies.sort(Comparator.comparing(Movie::getTitle, Comparator.nullsLast(Comparator.naturalOrder())));
+            return movies;
+        }
+
+        // Compares the record's imdbID with key in place, as unsigned bytes
+        private int compareKey(int record, byte[] key) {
+            int length = buffer.getInt(record);
+            int shared = Math.min(length, key.length);
+            for (int i = 0; i < shared; i++) {
+                int cmp = Byte.compareUnsigned(buffer.get(record + 4 + i), key[i]);
+                if (cmp != 0) {
+                    return cmp;
+                }
+            }
+            return Integer.compare(length, key.length);
+        }
+
+        private Movie decode(int record) {
+            int[] position = {record};
+            String imdbId = readString(position);
+            String id = readString(position);
+            return Movie.builder()
+                    .imdbID(imdbId)
+                    .id(id == null ? null : new ObjectId(id))
+                    .title(readString(position))
+                    .releaseDate(readString(position))
+                    .trailerLink(readString(position))
+                    .poster(readString(position))
+                    .genres(readStrings(position))
+                    .backdrops(readStrings(position))
+                    .build();
+        }
+
+        private List<String> readStrings(int[] position) {
+            int size = buffer.getInt(position[0]);
+            position[0] += 4;
+            List<String> values = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                values.add(readString(position));
+            }
+            return values;
+        }
+
+        private String readString(int[] position) {
+            int length = buffer.getInt(position[0]);
+            position[0] += 4;
+            if (length < 0) {
+                return null;
+            }
+            byte[] bytes = new byte[length];
+            buffer.get(position[0], bytes);
+            position[0] += length;
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
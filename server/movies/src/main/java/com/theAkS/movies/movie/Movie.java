@@ -7,6 +7,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.bson.types.ObjectId;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.DocumentReference;
 
@@ -21,6 +22,7 @@ import java.util.List;
 public class Movie {
     @Id
     private ObjectId id;
+    @Indexed
     private String imdbID;
     private String title;
     private String releaseDate;
@@ -28,6 +30,7 @@ public class Movie {
     private String poster;
 
     // ✅ Initialize all list fields to prevent NullPointerExceptions
+    @Indexed
     @Builder.Default
     private List<String> genres = new ArrayList<>();
 
@@ -37,4 +40,7 @@ public class Movie {
     @DocumentReference
     @Builder.Default
     private List<Review> reviewIds = new ArrayList<>();
+
+    // Maintained instead of reviewIds when reviews are stored in buckets
+    private Integer reviewCount;
 }
\ No newline at end of file
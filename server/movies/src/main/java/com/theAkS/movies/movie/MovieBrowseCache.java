@@ -0,0 +1,63 @@
+package com.theAkS.movies.movie;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Holds the precomputed genre list and featured set behind /movies/genres and /movies/featured,
+ * so the home page never triggers a full-catalog scan. Loaded on first use and refreshed on a
+ * fixed delay; readers always see a complete snapshot.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class MovieBrowseCache {
+
+    private final MovieService movieService;
+
+    private volatile Snapshot snapshot;
+
+    public List<String> genres() {
+        return current().genres();
+    }
+
+    public List<Movie> featured(int limit) {
+        List<Movie> featured = current().featured();
+        return featured.subList(0, Math.min(Math.max(limit, 0), featured.size()));
+    }
+
+    @Scheduled(fixedDelayString = "${movies.browse.refresh-interval-ms:300000}",
+            initialDelayString = "${movies.browse.refresh-interval-ms:300000}")
+    public void scheduledRefresh() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            // Keep serving the previous snapshot until Mongo is reachable again
+            log.warn("Browse cache refresh failed: {}", e.getMessage());
+        }
+    }
+
+    public synchronized void refresh() {
+        snapshot = new Snapshot(movieService.distinctGenres(), movieService.featuredMovies());
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                if (snapshot == null) {
+                    refresh();
+                }
+                current = snapshot;
+            }
+        }
+        return current;
+    }
+
+    private record Snapshot(List<String> genres, List<Movie> featured) {
+    }
+}
@@ -1,12 +1,30 @@
 package com.theAkS.movies.movie;
 
+import com.theAkS.movies.dto.MovieBatchResultDto;
+import com.theAkS.movies.dto.MovieDetailDto;
 import com.theAkS.movies.dto.MovieDto;
 import com.theAkS.movies.dto.ReviewDto;
+import com.theAkS.movies.dto.ReviewPageDto;
+import com.theAkS.movies.dto.ReviewStatsDto;
+import com.theAkS.movies.dto.SimilarMovieDto;
+import com.theAkS.movies.dto.TitleSuggestionDto;
+import com.theAkS.movies.dto.TrendingMovieDto;
+import com.theAkS.movies.moderation.ReviewStats;
+import com.theAkS.movies.review.ReviewPage;
+import com.theAkS.movies.review.ReviewStreamHub;
+import com.theAkS.movies.timing.RequestTiming;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @RestController
@@ -15,38 +33,195 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class MovieController {
 
+    // The detail page carries its reviews as a separate first page
+    private static final MovieFields DETAIL_FIELDS =
+            MovieFields.parse("imdbID,title,releaseDate,trailerLink,poster,genre,backdrop").orElseThrow();
+
     private final MovieService movieService;
+    private final MovieDetailService movieDetailService;
+    private final MovieBrowseCache movieBrowseCache;
+    private final TrendingTracker trendingTracker;
+    private final SimilarMoviesIndex similarMoviesIndex;
+    private final TitleSuggestIndex titleSuggestIndex;
+    private final ReviewStreamHub reviewStreamHub;
+
+    @Value("${movies.batch.max-size:100}")
+    private int maxBatchSize;
 
+    // Movie endpoints take ?fields=title,poster,... to read and return only those MovieDto properties
     @GetMapping
-    public ResponseEntity<List<MovieDto>> getAllMovies() {
-        List<MovieDto> movieDtos = movieService.allMovies().stream()
-                .map(this::convertToDto)
+    public ResponseEntity<MappingJacksonValue> getAllMovies(@RequestParam(required = false) String fields) {
+        return MovieFields.parse(fields)
+                .map(requested -> withFields(movieService.allMovies(requested).stream()
+                        .map(this::convertToDto)
+                        .collect(Collectors.toList()), requested))
+                .orElse(ResponseEntity.badRequest().build());
+    }
+
+    @GetMapping("/genre/{genre}")
+    public ResponseEntity<MappingJacksonValue> getMoviesByGenre(@PathVariable String genre,
+                                                                @RequestParam(required = false) String fields) {
+        return MovieFields.parse(fields)
+                .map(requested -> withFields(movieService.moviesByGenre(genre, requested).stream()
+                        .map(this::convertToDto)
+                        .collect(Collectors.toList()), requested))
+                .orElse(ResponseEntity.badRequest().build());
+    }
+
+    // Served from the browse cache, so fields only trims the response
+    @GetMapping("/featured")
+    public ResponseEntity<MappingJacksonValue> getFeaturedMovies(@RequestParam(defaultValue = "10") int limit,
+                                                                 @RequestParam(required = false) String fields) {
+        return MovieFields.parse(fields)
+                .map(requested -> withFields(movieBrowseCache.featured(limit).stream()
+                        .map(this::convertToDto)
+                        .collect(Collectors.toList()), requested))
+                .orElse(ResponseEntity.badRequest().build());
+    }
+
+    @GetMapping("/genres")
+    public ResponseEntity<List<String>> getGenres() {
+        return ResponseEntity.ok(movieBrowseCache.genres());
+    }
+
+    // Ranked by recent views and reviews on this instance; refreshed in the background
+    @GetMapping("/trending")
+    public ResponseEntity<List<TrendingMovieDto>> getTrendingMovies(@RequestParam(defaultValue = "1h") String window,
+                                                                    @RequestParam(defaultValue = "10") int limit) {
+        if (!trendingTracker.supportsWindow(window)) {
+            return ResponseEntity.badRequest().build();
+        }
+        List<TrendingMovieDto> trending = trendingTracker.trending(window, limit).stream()
+                .map(movie -> new TrendingMovieDto(movie.imdbID(), movie.title(), movie.poster(), movie.score()))
+                .collect(Collectors.toList());
+        return ResponseEntity.ok(trending);
+    }
+
+    // Search-box autocomplete: matches the start of any word in the title, ignoring case and accents
+    @GetMapping("/suggest")
+    public ResponseEntity<List<TitleSuggestionDto>> suggestTitles(@RequestParam String prefix,
+                                                                  @RequestParam(defaultValue = "10") int limit) {
+        if (prefix.isBlank()) {
+            return ResponseEntity.ok(List.of());
+        }
+        List<TitleSuggestionDto> suggestions = titleSuggestIndex.suggest(prefix.stripLeading(), limit).stream()
+                .map(movie -> new TitleSuggestionDto(movie.imdbID(), movie.title(), movie.poster()))
                 .collect(Collectors.toList());
-        return ResponseEntity.ok(movieDtos);
+        return ResponseEntity.ok(suggestions);
     }
 
     @GetMapping("/{imdbId}")
-    public ResponseEntity<MovieDto> getSingleMovie(@PathVariable String imdbId) {
-        return movieService.singleMovie(imdbId)
+    public ResponseEntity<MappingJacksonValue> getSingleMovie(@PathVariable String imdbId,
+                                                              @RequestParam(required = false) String fields) {
+        Optional<MovieFields> requested = MovieFields.parse(fields);
+        if (requested.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+        return movieService.singleMovie(imdbId, requested.get())
+                .map(movie -> {
+                    trendingTracker.recordView(imdbId);
+                    return movie;
+                })
+                .map(this::convertToDto)
+                .map(movieDto -> withFields(movieDto, requested.get()))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    // Movie, first review page, review stats and similar titles in one response; parts that fail
+    // or time out are left out and listed in "degraded" rather than failing the page
+    @GetMapping("/{imdbId}/detail")
+    public ResponseEntity<MappingJacksonValue> getMovieDetail(@PathVariable String imdbId,
+                                                              @RequestParam(defaultValue = "10") int similar) {
+        return movieDetailService.detail(imdbId, DETAIL_FIELDS)
+                .map(detail -> {
+                    trendingTracker.recordView(imdbId);
+                    ReviewStats stats = detail.reviewStats();
+                    return new MovieDetailDto(
+                            convertToDto(detail.movie()),
+                            detail.reviews() == null ? null : convertToDto(detail.reviews()),
+                            stats == null ? null : new ReviewStatsDto(stats.count(), stats.averageSentiment(), stats.positive(), stats.negative()),
+                            detail.similar().stream()
+                                    .limit(Math.max(similar, 0))
+                                    .map(movie -> new SimilarMovieDto(movie.imdbID(), movie.title(), movie.poster(), movie.score()))
+                                    .collect(Collectors.toList()),
+                            detail.degraded());
+                })
+                .map(detailDto -> withFields(detailDto, DETAIL_FIELDS))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/{imdbId}/reviews")
+    public ResponseEntity<ReviewPageDto> getMovieReviews(@PathVariable String imdbId,
+                                                         @RequestParam(required = false) String cursor) {
+        return movieService.movieReviews(imdbId, cursor)
                 .map(this::convertToDto)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
-    private MovieDto convertToDto(Movie movie) {
-        List<ReviewDto> reviewDtos = movie.getReviewIds().stream()
-                .map(review -> new ReviewDto(review.getBody()))
+    // Live feed of new reviews; EventSource reconnects send Last-Event-ID to resume where they left off
+    @GetMapping("/{imdbId}/reviews/stream")
+    public ResponseEntity<SseEmitter> streamMovieReviews(@PathVariable String imdbId,
+                                                         @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        if (!movieService.exists(imdbId)) {
+            return ResponseEntity.notFound().build();
+        }
+        return reviewStreamHub.subscribe(imdbId, lastEventId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build());
+    }
+
+    // Served from the precomputed neighbor table; titles added since the last rebuild are 404 until the next one
+    @GetMapping("/{imdbId}/similar")
+    public ResponseEntity<List<SimilarMovieDto>> getSimilarMovies(@PathVariable String imdbId,
+                                                                  @RequestParam(defaultValue = "10") int limit) {
+        return similarMoviesIndex.similar(imdbId)
+                .map(similar -> similar.stream()
+                        .limit(Math.max(limit, 0))
+                        .map(movie -> new SimilarMovieDto(movie.imdbID(), movie.title(), movie.poster(), movie.score()))
+                        .collect(Collectors.toList()))
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    // Resolves many titles in one round trip; results follow request order, unknown ids are marked found=false
+    @PostMapping("/batch")
+    public ResponseEntity<MappingJacksonValue> getMoviesBatch(@RequestBody List<String> imdbIds,
+                                                              @RequestParam(required = false) String fields) {
+        Optional<MovieFields> requested = MovieFields.parse(fields);
+        if (imdbIds == null || imdbIds.size() > maxBatchSize || requested.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+        Map<String, Movie> movies = movieService.moviesByImdbIds(new LinkedHashSet<>(imdbIds), requested.get());
+        List<MovieBatchResultDto> results = imdbIds.stream()
+                .map(imdbId -> {
+                    Movie movie = movies.get(imdbId);
+                    return movie == null
+                            ? new MovieBatchResultDto(imdbId, false, null)
+                            : new MovieBatchResultDto(imdbId, true, convertToDto(movie));
+                })
                 .collect(Collectors.toList());
+        return withFields(results, requested.get());
+    }
+
+    private static ResponseEntity<MappingJacksonValue> withFields(Object body, MovieFields fields) {
+        MappingJacksonValue value = new MappingJacksonValue(body);
+        value.setFilters(fields.filter());
+        return ResponseEntity.ok(value);
+    }
+
+    private ReviewPageDto convertToDto(ReviewPage page) {
+        return new ReviewPageDto(
+                page.reviews().stream()
+                        .map(review -> new ReviewDto(review.getBody()))
+                        .collect(Collectors.toList()),
+                page.nextCursor());
+    }
 
-        return new MovieDto(
-                movie.getImdbID(),
-                movie.getTitle(),
-                movie.getReleaseDate(),
-                movie.getTrailerLink(),
-                movie.getPoster(),
-                movie.getGenres(),   // Corrected from getGenre()
-                movie.getBackdrops(), // Corrected from getBackdrop()
-                reviewDtos
-        );
+    private MovieDto convertToDto(Movie movie) {
+        long start = RequestTiming.begin();
+        MovieDto movieDto = MovieDto.from(movie);
+        RequestTiming.end("dto", start);
+        return movieDto;
     }
 }
\ No newline at end of file
@@ -0,0 +1,204 @@
+package com.theAkS.movies.movie;
+
+import com.theAkS.movies.moderation.ModerationService;
+import com.theAkS.movies.moderation.ReviewStats;
+import com.theAkS.movies.review.ReviewPage;
+import com.theAkS.movies.timing.RequestTiming;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Composes the movie detail page. The review page and review stats are independent Mongo reads,
+ * so they run on a bounded pool while the request thread reads the movie document itself and the
+ * in-memory similar titles; the page then takes as long as the slowest read instead of the sum.
+ * <p>
+ * The movie is required. Every other part is optional: a part that fails, is rejected by the full
+ * pool or is not done {@code part-timeout-ms} after it was started is left out and named in
+ * {@link MovieDetail#degraded()}. A late part is not interrupted (that would close its Mongo
+ * connection); it finishes in the background and its result is dropped.
+ * <p>
+ * Each part is timed in {@code movies.detail.part} (tags part and outcome) and as a
+ * {@code detail.<part>} Server-Timing span.
+ */
+@Service
+@Slf4j
+public class MovieDetailService {
+
+    static final String REVIEWS = "reviews";
+    static final String REVIEW_STATS = "reviewStats";
+    static final String SIMILAR = "similar";
+    // Server-Timing span names are compared by identity first, so keep them constant
+    private static final Map<String, String> SPANS = Map.of(
+            REVIEWS, "detail.reviews",
+            REVIEW_STATS, "detail.reviewStats",
+            SIMILAR, "detail.similar");
+
+    private final MovieService movieService;
+    private final ModerationService moderationService;
+    private final SimilarMoviesIndex similarMoviesIndex;
+    private final MeterRegistry meterRegistry;
+    private final ThreadPoolExecutor executor;
+    private final long partTimeoutNanos;
+
+    public MovieDetailService(MovieService movieService,
+                              ModerationService moderationService,
+                              SimilarMoviesIndex similarMoviesIndex,
+                              MeterRegistry meterRegistry,
+                              @Value("${movies.detail.threads:16}") int threads,
+                              @Value("${movies.detail.queue-size:64}") int queueSize,
+                              @Value("${movies.detail.part-timeout-ms:300}") long partTimeoutMs) {
+        this.movieService = movieService;
+        this.moderationService = moderationService;
+        this.similarMoviesIndex = similarMoviesIndex;
+        this.meterRegistry = meterRegistry;
+        this.partTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(partTimeoutMs);
+        AtomicInteger threadIds = new AtomicInteger();
+        // No caller-runs fallback: a saturated pool degrades pages instead of serializing them
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueSize), runnable -> {
+                    Thread thread = new Thread(runnable, "movie-detail-" + threadIds.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.executor.allowCoreThreadTimeOut(true);
+        meterRegistry.gauge("movies.detail.queue", executor.getQueue(), Collection::size);
+    }
+
+    /**
+     * Parts left out are null and listed in {@code degraded}. {@code reviews} and
+     * {@code reviewStats} are also null, without being degraded, when the movie does not exist.
+     */
+    public record MovieDetail(Movie movie,
+                              ReviewPage reviews,
+                              ReviewStats reviewStats,
+                              List<SimilarMoviesIndex.SimilarMovie> similar,
+                              List<String> degraded) {
+    }
+
+    /** Empty when there is no such movie. */
+    public Optional<MovieDetail> detail(String imdbId, MovieFields fields) {
+        Part<Optional<ReviewPage>> reviews = submit(REVIEWS, () -> movieService.movieReviews(imdbId, null));
+        Part<ReviewStats> reviewStats = submit(REVIEW_STATS, () -> moderationService.reviewStats(imdbId));
+
+        Optional<Movie> movie;
+        try {
+            movie = movieService.singleMovie(imdbId, fields);
+        } catch (RuntimeException e) {
+            reviews.cancel();
+            reviewStats.cancel();
+            throw e;
+        }
+        if (movie.isEmpty()) {
+            reviews.cancel();
+            reviewStats.cancel();
+            return Optional.empty();
+        }
+        // The neighbor table is in memory; handing it to the pool would cost more than it saves
+        long similarStart = System.nanoTime();
+        List<SimilarMoviesIndex.SimilarMovie> similar = similarMoviesIndex.similar(imdbId).orElse(List.of());
+        record(SIMILAR, "ok", System.nanoTime() - similarStart);
+
+        List<String> degraded = new ArrayList<>(2);
+        Optional<ReviewPage> reviewPage = reviews.await(degraded);
+        ReviewStats stats = reviewStats.await(degraded);
+        return Optional.of(new MovieDetail(movie.get(),
+                reviewPage == null ? null : reviewPage.orElse(null),
+                stats,
+                similar,
+                degraded));
+    }
+
+    private <T> Part<T> submit(String name, Supplier<T> lookup) {
+        long submitted = System.nanoTime();
+        try {
+            return new Part<>(name, submitted, executor.submit(() -> {
+                T result = lookup.get();
+                return new Timed<>(result, System.nanoTime() - submitted);
+            }));
+        } catch (RejectedExecutionException e) {
+            return new Part<>(name, submitted, null);
+        }
+    }
+
+    private void record(String part, String outcome, long nanos) {
+        Timer.builder("movies.detail.part")
+                .tag("part", part)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+        RequestTiming.add(SPANS.get(part), nanos);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private record Timed<T>(T value, long nanos) {
+    }
+
+    /** One optional part in flight; {@code future} is null when the pool rejected it. */
+    private final class Part<T> {
+        private final String name;
+        private final long submitted;
+        private final Future<Timed<T>> future;
+
+        private Part(String name, long submitted, Future<Timed<T>> future) {
+            this.name = name;
+            this.submitted = submitted;
+            this.future = future;
+        }
+
+        // The result, or null after adding this part to degraded
+        T await(List<String> degraded) {
+            if (future == null) {
+                record(name, "rejected", 0);
+                degraded.add(name);
+                return null;
+            }
+            long remaining = partTimeoutNanos - (System.nanoTime() - submitted);
+            try {
+                Timed<T> timed = future.get(Math.max(remaining, 0), TimeUnit.NANOSECONDS);
+                record(name, "ok", timed.nanos());
+                return timed.value();
+            } catch (TimeoutException e) {
+                future.cancel(false);
+                record(name, "timeout", System.nanoTime() - submitted);
+            } catch (ExecutionException e) {
+                log.debug("Detail part {} failed: {}", name, e.getCause().toString());
+                record(name, "error", System.nanoTime() - submitted);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                future.cancel(false);
+                record(name, "interrupted", System.nanoTime() - submitted);
+            }
+            degraded.add(name);
+            return null;
+        }
+
+        void cancel() {
+            if (future != null) {
+                future.cancel(false);
+            }
+        }
+    }
+}
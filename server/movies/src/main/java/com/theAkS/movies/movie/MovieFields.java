@@ -0,0 +1,91 @@
+package com.theAkS.movies.movie;
+
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.theAkS.movies.dto.MovieDto;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * The MovieDto properties a client asked for with {@code ?fields=title,poster}. Drives both the
+ * Mongo projection (so unrequested fields never leave the database) and the JSON filter on
+ * MovieDto (so they are not serialized either). No parameter means every field.
+ */
+public final class MovieFields {
+
+    // MovieDto property -> Movie document field
+    private static final Map<String, String> MONGO_FIELDS = Map.of(
+            "imdbID", "imdbID",
+            "title", "title",
+            "releaseDate", "releaseDate",
+            "trailerLink", "trailerLink",
+            "poster", "poster",
+            "genre", "genres",
+            "backdrop", "backdrops",
+            "reviews", "reviewIds");
+
+    public static final MovieFields ALL = new MovieFields(MONGO_FIELDS.keySet(), true);
+
+    private final Set<String> names;
+    private final boolean all;
+
+    private MovieFields(Set<String> names, boolean all) {
+        this.names = names;
+        this.all = all;
+    }
+
+    /** Empty when the list names a property MovieDto does not have. */
+    public static Optional<MovieFields> parse(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return Optional.of(ALL);
+        }
+        Set<String> names = new LinkedHashSet<>();
+        for (String name : fields.split(",")) {
+            String trimmed = name.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            if (!MONGO_FIELDS.containsKey(trimmed)) {
+                return Optional.empty();
+            }
+            names.add(trimmed);
+        }
+        return Optional.of(names.isEmpty() || names.size() == MONGO_FIELDS.size() ? ALL : new MovieFields(Set.copyOf(names), false));
+    }
+
+    public boolean all() {
+        return all;
+    }
+
+    public boolean reviews() {
+        return names.contains("reviews");
+    }
+
+    /** The requested properties as a set, equal whatever order the client listed them in; for single-flight keys. */
+    public Set<String> key() {
+        return names;
+    }
+
+    /** Restricts the query to the requested fields; imdbID is always read since results are keyed by it. */
+    public Query project(Query query) {
+        if (all) {
+            return query;
+        }
+        query.fields().include("imdbID");
+        for (String name : names) {
+            query.fields().include(MONGO_FIELDS.get(name));
+        }
+        return query;
+    }
+
+    public FilterProvider filter() {
+        return new SimpleFilterProvider().addFilter(MovieDto.FIELDS_FILTER, all
+                ? SimpleBeanPropertyFilter.serializeAll()
+                : SimpleBeanPropertyFilter.filterOutAllExcept(names));
+    }
+}
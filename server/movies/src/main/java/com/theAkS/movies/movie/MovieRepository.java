@@ -9,4 +9,6 @@ import java.util.Optional;
 @Repository
 public interface MovieRepository extends MongoRepository<Movie, ObjectId> {
     Optional<Movie> findMovieByImdbID(String imdbID);
+
+    boolean existsByImdbID(String imdbID);
 }
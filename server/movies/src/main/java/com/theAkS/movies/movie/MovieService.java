@@ -1,32 +1,284 @@
 package com.theAkS.movies.movie;
 
 import com.theAkS.movies.review.Review;
+import com.theAkS.movies.review.ReviewBucketService;
+import com.theAkS.movies.review.ReviewPage;
+import com.theAkS.movies.review.ReviewReferences;
+import com.theAkS.movies.support.DependencyGuard;
+import com.theAkS.movies.support.SingleFlight;
+import com.theAkS.movies.timing.RequestTiming;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.aggregation.ArrayOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 @Service
 public class MovieService {
 
     private final MovieRepository movieRepository;
+    private final MongoTemplate mongoTemplate;
+    // Catalog-wide reads that tolerate a lagging secondary
+    private final MongoTemplate catalogMongoTemplate;
+    private final DependencyGuard dependencyGuard;
+    private final ReviewBucketService reviewBucketService;
+    private final CatalogSnapshot catalogSnapshot;
+    private final Counter snapshotReads;
 
-    public MovieService(MovieRepository movieRepository) {
+    @Value("${movies.browse.featured-size:50}")
+    private int featuredSize;
+
+    // Concurrent requests for the same imdbId share one Mongo load (and its review resolution)
+    private final SingleFlight<MovieKey, Optional<Movie>> movieLoads;
+    private final SingleFlight<ReviewPageKey, Optional<ReviewPage>> reviewLoads;
+
+    // Keys are compared field by field; a joined string would let a crafted imdbId alias another request
+    private record MovieKey(String imdbId, Set<String> fields) {
+    }
+
+    private record ReviewPageKey(String imdbId, String cursor) {
+    }
+
+    public MovieService(MovieRepository movieRepository,
+                        MongoTemplate mongoTemplate,
+                        @Qualifier("catalogMongoTemplate") MongoTemplate catalogMongoTemplate,
+                        DependencyGuard dependencyGuard,
+                        ReviewBucketService reviewBucketService,
+                        CatalogSnapshot catalogSnapshot,
+                        MeterRegistry meterRegistry,
+                        @Value("${movies.single-flight.timeout-ms:2000}") long singleFlightTimeoutMs) {
         this.movieRepository = movieRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.catalogMongoTemplate = catalogMongoTemplate;
+        this.dependencyGuard = dependencyGuard;
+        this.reviewBucketService = reviewBucketService;
+        this.catalogSnapshot = catalogSnapshot;
+        this.snapshotReads = Counter.builder("movies.snapshot.fallback")
+                .description("Catalog reads served from the local snapshot because Mongo was unavailable")
+                .register(meterRegistry);
+        Duration timeout = Duration.ofMillis(singleFlightTimeoutMs);
+        this.movieLoads = new SingleFlight<>("movie", timeout, meterRegistry);
+        this.reviewLoads = new SingleFlight<>("movie-reviews", timeout, meterRegistry);
     }
 
-    public List<Movie> allMovies() {
-        return movieRepository.findAll();
+    /** The whole catalog, read with the projection for {@code fields}; references are resolved only when reviews are requested. */
+    public List<Movie> allMovies(MovieFields fields) {
+        return withSnapshotFallback(
+                () -> dependencyGuard.mongo(() -> fields.all()
+                        ? catalogMongoTemplate.findAll(Movie.class)
+                        : catalogMongoTemplate.find(fields.project(new Query()), Movie.class)),
+                CatalogSnapshot::all);
     }
 
     public Optional<Movie> singleMovie(String imdbId) {
-        return movieRepository.findMovieByImdbID(imdbId);
+        return withSnapshotFallback(
+                () -> movieLoads.execute(new MovieKey(imdbId, null), () -> dependencyGuard.mongo(() -> {
+                    Optional<Movie> movie = movieRepository.findMovieByImdbID(imdbId);
+                    // With bucket storage the detail view shows the newest bucket
+                    if (reviewBucketService.enabled()) {
+                        movie.ifPresent(found -> found.setReviewIds(
+                                RequestTiming.time("reviews", () -> reviewBucketService.page(imdbId, null).reviews())));
+                    }
+                    return movie;
+                })),
+                snapshot -> snapshot.find(imdbId));
+    }
+
+    // Without reviews the detail read is one projected document, with no review lookups at all
+    public Optional<Movie> singleMovie(String imdbId, MovieFields fields) {
+        if (fields.reviews()) {
+            return singleMovie(imdbId);
+        }
+        Query query = fields.project(Query.query(Criteria.where("imdbID").is(imdbId)));
+        return withSnapshotFallback(
+                () -> movieLoads.execute(new MovieKey(imdbId, fields.key()), () -> dependencyGuard.mongo(() ->
+                        Optional.ofNullable(mongoTemplate.findOne(query, Movie.class)))),
+                snapshot -> snapshot.find(imdbId));
+    }
+
+    // Mongo is down or its breaker is open: serve the catalog from the local snapshot, without reviews
+    private <T> T withSnapshotFallback(Supplier<T> read, Function<CatalogSnapshot, T> fallback) {
+        try {
+            return read.get();
+        } catch (DataAccessResourceFailureException | CallNotPermittedException e) {
+            if (!catalogSnapshot.available()) {
+                throw e;
+            }
+            snapshotReads.increment();
+            return fallback.apply(catalogSnapshot);
+        }
+    }
+
+    public boolean exists(String imdbId) {
+        return dependencyGuard.mongo(() -> movieRepository.existsByImdbID(imdbId));
+    }
+
+    /**
+     * One page of a movie's reviews. Bucket storage pages one bucket at a time using the cursor
+     * from the previous page; reference storage returns every review in a single page.
+     */
+    public Optional<ReviewPage> movieReviews(String imdbId, String cursor) {
+        return reviewLoads.execute(new ReviewPageKey(imdbId, cursor), () -> dependencyGuard.mongo(() -> {
+            if (reviewBucketService.enabled()) {
+                return movieRepository.existsByImdbID(imdbId)
+                        ? Optional.of(reviewBucketService.page(imdbId, cursor))
+                        : Optional.empty();
+            }
+            return movieRepository.findMovieByImdbID(imdbId)
+                    .map(movie -> new ReviewPage(movie.getReviewIds(), null));
+        }));
+    }
+
+    // List views rarely render reviews, so the reference array is only read when explicitly requested
+    public List<Movie> moviesByGenre(String genre, MovieFields fields) {
+        Query query = Query.query(Criteria.where("genres").is(genre))
+                .with(Sort.by("title"));
+        if (fields.all()) {
+            query.fields().exclude("reviewIds");
+        } else {
+            fields.project(query);
+        }
+        return dependencyGuard.mongo(() -> catalogMongoTemplate.find(query, Movie.class));
+    }
+
+    public List<String> distinctGenres() {
+        return dependencyGuard.mongo(() -> catalogMongoTemplate.findDistinct(new Query(), "genres", Movie.class, String.class))
+                .stream()
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    // Title and poster only, for ranking lists that link to the detail page
+    public Map<String, Movie> movieSummaries(Collection<String> imdbIds) {
+        Query query = Query.query(Criteria.where("imdbID").in(imdbIds));
+        query.fields().include("imdbID", "title", "poster");
+        return dependencyGuard.mongo(() -> catalogMongoTemplate.find(query, Movie.class)).stream()
+                .collect(Collectors.toMap(Movie::getImdbID, movie -> movie, (first, second) -> first));
+    }
+
+    /**
+     * Changes when movies are added or removed: the count plus the newest _id. Cheap enough to
+     * poll, so derived indexes can skip rebuilding an unchanged catalog.
+     */
+    public String catalogVersion() {
+        Query newest = new Query().with(Sort.by(Sort.Direction.DESC, "_id")).limit(1);
+        newest.fields().include("_id");
+        return dependencyGuard.mongo(() -> {
+            long count = catalogMongoTemplate.count(new Query(), Movie.class);
+            Movie latest = catalogMongoTemplate.findOne(newest, Movie.class);
+            return count + ":" + (latest == null ? "" : latest.getId().toHexString());
+        });
+    }
+
+    // Featured = most-reviewed titles, ranked inside Mongo so only the top slice is transferred
+    public List<Movie> featuredMovies() {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.project("imdbID", "title", "releaseDate", "trailerLink", "poster", "genres", "backdrops")
+                        .and(ArithmeticOperators.Add.valueOf(
+                                        ArrayOperators.Size.lengthOfArray(ConditionalOperators.ifNull("reviewIds").then(List.of())))
+                                .add(ConditionalOperators.ifNull("reviewCount").then(0)))
+                        .as("reviewCount"),
+                Aggregation.sort(Sort.by(Sort.Direction.DESC, "reviewCount").and(Sort.by("title"))),
+                Aggregation.limit(featuredSize));
+        return dependencyGuard.mongo(() -> catalogMongoTemplate.aggregate(
+                aggregation, catalogMongoTemplate.getCollectionName(Movie.class), Movie.class).getMappedResults());
+    }
+
+    // Whole catalog reduced to what the similarity job needs; reviewCount holds the total for both storage modes
+    public List<Movie> similaritySignals() {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.project("imdbID", "title", "poster", "genres")
+                        .and(ArithmeticOperators.Add.valueOf(
+                                        ArrayOperators.Size.lengthOfArray(ConditionalOperators.ifNull("reviewIds").then(List.of())))
+                                .add(ConditionalOperators.ifNull("reviewCount").then(0)))
+                        .as("reviewCount"));
+        return dependencyGuard.mongo(() -> catalogMongoTemplate.aggregate(
+                aggregation, catalogMongoTemplate.getCollectionName(Movie.class), Movie.class).getMappedResults());
+    }
+
+    /**
+     * Loads many movies with one $in query on imdbID and resolves all of their reviews with a
+     * second $in query, instead of one movie query plus one review query per title.
+     * Unknown ids are simply absent from the returned map. When {@code fields} leaves reviews out,
+     * the second query is skipped.
+     */
+    public Map<String, Movie> moviesByImdbIds(Collection<String> imdbIds, MovieFields fields) {
+        return dependencyGuard.mongo(() -> {
+            // Read raw documents so @DocumentReference does not resolve reviews movie by movie
+            List<Document> documents = mongoTemplate.find(
+                    fields.project(Query.query(Criteria.where("imdbID").in(imdbIds))),
+                    Document.class,
+                    mongoTemplate.getCollectionName(Movie.class));
+            if (!fields.reviews()) {
+                return documents.stream()
+                        .map(document -> mongoTemplate.getConverter().read(Movie.class, document))
+                        .collect(Collectors.toMap(Movie::getImdbID, movie -> movie, (first, second) -> first));
+            }
+
+            List<Movie> movies = new ArrayList<>(documents.size());
+            List<List<ObjectId>> reviewIdsPerMovie = new ArrayList<>(documents.size());
+            List<ObjectId> allReviewIds = new ArrayList<>();
+            for (Document document : documents) {
+                List<ObjectId> reviewIds = ReviewReferences.ids(document.remove("reviewIds"));
+                movies.add(mongoTemplate.getConverter().read(Movie.class, document));
+                reviewIdsPerMovie.add(reviewIds);
+                allReviewIds.addAll(reviewIds);
+            }
+
+            long reviewsStart = RequestTiming.begin();
+            Map<ObjectId, Review> reviews = allReviewIds.isEmpty() ? Map.of() : mongoTemplate.find(
+                            Query.query(Criteria.where("_id").in(allReviewIds)), Review.class).stream()
+                    .collect(Collectors.toMap(Review::getId, Function.identity()));
+
+            Map<String, List<Review>> bucketed = reviewBucketService.enabled()
+                    ? reviewBucketService.latestReviews(imdbIds)
+                    : Map.of();
+            RequestTiming.end("reviews", reviewsStart);
+
+            Map<String, Movie> byImdbId = new HashMap<>();
+            for (int i = 0; i < movies.size(); i++) {
+                Movie movie = movies.get(i);
+                List<Review> movieReviews = reviewIdsPerMovie.get(i).stream()
+                        .map(reviews::get)
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.toList());
+                movieReviews.addAll(bucketed.getOrDefault(movie.getImdbID(), List.of()));
+                movie.setReviewIds(movieReviews);
+                byImdbId.putIfAbsent(movie.getImdbID(), movie);
+            }
+            return byImdbId;
+        });
     }
 
     public void addReviewToMovie(String imdbId, Review review) {
-        movieRepository.findMovieByImdbID(imdbId).ifPresent(movie -> {
+        dependencyGuard.mongo(() -> movieRepository.findMovieByImdbID(imdbId).ifPresent(movie -> {
             movie.getReviewIds().add(review);
             movieRepository.save(movie);
-        });
+        }));
     }
-}
\ No newline at end of file
+}
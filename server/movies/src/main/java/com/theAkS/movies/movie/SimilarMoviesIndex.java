@@ -0,0 +1,217 @@
+package com.theAkS.movies.movie;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Precomputed "similar movies" table behind GET /movies/{imdbId}/similar. A scheduled job scores
+ * every pair of movies on a fork-join pool and keeps the best neighbors of each title; requests
+ * only look the title up in the last published table.
+ * <p>
+ * Similarity is the Jaccard overlap of the genre sets plus a small bonus for titles with more
+ * reviews, so ties between equally close genres favour the ones people actually talk about.
+ */
+@Component
+@Slf4j
+public class SimilarMoviesIndex {
+
+    // Rows per leaf task; small enough to balance uneven rows, large enough to amortise forking
+    private static final int ROWS_PER_TASK = 32;
+    private static final float POPULARITY_WEIGHT = 0.1f;
+
+    private final MovieService movieService;
+    private final ForkJoinPool pool;
+    private final int neighbors;
+    private final Timer buildTimer;
+
+    private volatile Map<String, List<SimilarMovie>> table = Map.of();
+
+    public SimilarMoviesIndex(MovieService movieService,
+                              MeterRegistry meterRegistry,
+                              @Value("${movies.similar.neighbors:10}") int neighbors,
+                              @Value("${movies.similar.parallelism:0}") int parallelism) {
+        this.movieService = movieService;
+        this.neighbors = Math.max(1, neighbors);
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.buildTimer = Timer.builder("movies.similar.build").register(meterRegistry);
+        meterRegistry.gauge("movies.similar.titles", this, index -> index.table.size());
+    }
+
+    public Optional<List<SimilarMovie>> similar(String imdbId) {
+        return Optional.ofNullable(table.get(imdbId));
+    }
+
+    @Scheduled(fixedDelayString = "${movies.similar.refresh-interval-ms:3600000}",
+            initialDelayString = "${movies.similar.initial-delay-ms:5000}")
+    public void scheduledRebuild() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            // Keep serving the previous table until Mongo is reachable again
+            log.warn("Similar movies rebuild failed: {}", e.getMessage());
+        }
+    }
+
+    public synchronized void rebuild() {
+        List<Movie> movies = movieService.similaritySignals();
+        table = buildTimer.record(() -> build(movies));
+        log.info("Similar movies table rebuilt for {} titles", movies.size());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    private Map<String, List<SimilarMovie>> build(List<Movie> movies) {
+        int count = movies.size();
+        Features features = Features.of(movies);
+        int[] neighborRows = new int[count * neighbors];
+        float[] scoreRows = new float[count * neighbors];
+        pool.invoke(new ScoreRows(features, neighbors, neighborRows, scoreRows, 0, count));
+
+        Map<String, List<SimilarMovie>> next = new HashMap<>(count * 2);
+        for (int row = 0; row < count; row++) {
+            List<SimilarMovie> similar = new ArrayList<>(neighbors);
+            for (int k = 0; k < neighbors; k++) {
+                int cell = row * neighbors + k;
+                if (scoreRows[cell] <= 0f) {
+                    break;
+                }
+                Movie neighbor = movies.get(neighborRows[cell]);
+                similar.add(new SimilarMovie(neighbor.getImdbID(), neighbor.getTitle(), neighbor.getPoster(), scoreRows[cell]));
+            }
+            next.put(movies.get(row).getImdbID(), List.copyOf(similar));
+        }
+        return next;
+    }
+
+    public record SimilarMovie(String imdbID, String title, String poster, float score) {
+    }
+
+    /**
+     * Catalog flattened into primitive arrays: genre sets as bitsets of {@code words} longs per
+     * movie and a normalised popularity per movie.
+     */
+    private record Features(int count, int words, long[] genreBits, int[] genreCounts, float[] popularity) {
+
+        static Features of(List<Movie> movies) {
+            Map<String, Integer> genreIds = new HashMap<>();
+            for (Movie movie : movies) {
+                for (String genre : movie.getGenres() == null ? List.<String>of() : movie.getGenres()) {
+                    genreIds.putIfAbsent(genre, genreIds.size());
+                }
+            }
+            int count = movies.size();
+            int words = Math.max(1, (genreIds.size() + 63) / 64);
+            long[] genreBits = new long[count * words];
+            int[] genreCounts = new int[count];
+            float[] popularity = new float[count];
+
+            double maxReviews = 0;
+            for (Movie movie : movies) {
+                maxReviews = Math.max(maxReviews, Math.log1p(reviewCount(movie)));
+            }
+            for (int i = 0; i < count; i++) {
+                Movie movie = movies.get(i);
+                if (movie.getGenres() != null) {
+                    for (String genre : movie.getGenres()) {
+                        int id = genreIds.get(genre);
+                        genreBits[i * words + (id >>> 6)] |= 1L << (id & 63);
+                    }
+                }
+                for (int w = 0; w < words; w++) {
+                    genreCounts[i] += Long.bitCount(genreBits[i * words + w]);
+                }
+                popularity[i] = maxReviews == 0 ? 0f : (float) (Math.log1p(reviewCount(movie)) / maxReviews);
+            }
+            return new Features(count, words, genreBits, genreCounts, popularity);
+        }
+
+        private static int reviewCount(Movie movie) {
+            return movie.getReviewCount() == null ? 0 : movie.getReviewCount();
+        }
+
+        float similarity(int a, int b) {
+            int shared = 0;
+            for (int w = 0; w < words; w++) {
+                shared += Long.bitCount(genreBits[a * words + w] & genreBits[b * words + w]);
+            }
+            if (shared == 0) {
+                return 0f;
+            }
+            float jaccard = (float) shared / (genreCounts[a] + genreCounts[b] - shared);
+            return jaccard + POPULARITY_WEIGHT * popularity[b];
+        }
+    }
+
+    /**
+     * Scores rows [from, to) against the whole catalog. Every task writes only its own rows of
+     * the output arrays, so no synchronisation is needed.
+     */
+    private static final class ScoreRows extends RecursiveAction {
+        private final Features features;
+        private final int neighbors;
+        private final int[] neighborRows;
+        private final float[] scoreRows;
+        private final int from;
+        private final int to;
+
+        ScoreRows(Features features, int neighbors, int[] neighborRows, float[] scoreRows, int from, int to) {
+            this.features = features;
+            this.neighbors = neighbors;
+            this.neighborRows = neighborRows;
+            this.scoreRows = scoreRows;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= ROWS_PER_TASK) {
+                for (int row = from; row < to; row++) {
+                    scoreRow(row);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new ScoreRows(features, neighbors, neighborRows, scoreRows, from, mid),
+                    new ScoreRows(features, neighbors, neighborRows, scoreRows, mid, to));
+        }
+
+        // Keeps the row's best neighbors sorted by descending score with insertion into a fixed slice
+        private void scoreRow(int row) {
+            int base = row * neighbors;
+            for (int other = 0; other < features.count(); other++) {
+                if (other == row) {
+                    continue;
+                }
+                float score = features.similarity(row, other);
+                if (score <= scoreRows[base + neighbors - 1]) {
+                    continue;
+                }
+                int k = neighbors - 1;
+                while (k > 0 && scoreRows[base + k - 1] < score) {
+                    scoreRows[base + k] = scoreRows[base + k - 1];
+                    neighborRows[base + k] = neighborRows[base + k - 1];
+                    k--;
+                }
+                scoreRows[base + k] = score;
+                neighborRows[base + k] = other;
+            }
+        }
+    }
+}
@@ -0,0 +1,405 @@
+package com.theAkS.movies.movie;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Title autocomplete behind GET /movies/suggest. Every title is folded (lower case, accents
+ * removed) and inserted into an immutable trie once per word start, so "mat" finds "The Matrix".
+ * Each trie node stores the ids of the best {@code top-k} titles below it, which makes a lookup
+ * one walk down the prefix plus a copy of at most top-k results.
+ * <p>
+ * The trie lives in a handful of primitive arrays (children sorted by label, binary searched) to
+ * keep it small and free of per-node objects. Titles are ranked by review count, then by title.
+ * It is rebuilt when the catalog version changes and at least every {@code max-age-ms}.
+ */
+@Component
+@Slf4j
+public class TitleSuggestIndex {
+
+    private final MovieService movieService;
+    private final int topK;
+    private final long maxAgeMs;
+    private final Timer buildTimer;
+    private final Timer lookupTimer;
+    private final DistributionSummary lookupAllocation;
+    private final com.sun.management.ThreadMXBean threads;
+
+    private volatile Trie trie = Trie.EMPTY;
+    private volatile String builtVersion;
+    private volatile long builtAt;
+
+    public TitleSuggestIndex(MovieService movieService,
+                             MeterRegistry meterRegistry,
+                             @Value("${movies.suggest.top-k:10}") int topK,
+                             @Value("${movies.suggest.max-age-ms:3600000}") long maxAgeMs) {
+        this.movieService = movieService;
+        this.topK = Math.max(1, topK);
+        this.maxAgeMs = maxAgeMs;
+        this.buildTimer = Timer.builder("movies.suggest.build").register(meterRegistry);
+        this.lookupTimer = Timer.builder("movies.suggest.lookup").register(meterRegistry);
+        this.lookupAllocation = DistributionSummary.builder("movies.suggest.lookup.allocated")
+                .description("Heap bytes allocated by one suggest lookup")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.threads = allocationCounter();
+        meterRegistry.gauge("movies.suggest.titles", this, index -> index.trie.titles.length);
+        meterRegistry.gauge("movies.suggest.nodes", this, index -> index.trie.nodeCount());
+    }
+
+    public int maxLimit() {
+        return topK;
+    }
+
+    public List<Suggestion> suggest(String prefix, int limit) {
+        Trie current = trie;
+        long start = System.nanoTime();
+        long allocatedBefore = allocatedBytes();
+        List<Suggestion> suggestions = current.lookup(prefix, Math.min(limit, topK));
+        long allocated = allocatedBytes() - allocatedBefore;
+        lookupTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        if (allocatedBefore >= 0) {
+            lookupAllocation.record(allocated);
+        }
+        return suggestions;
+    }
+
+    @Scheduled(fixedDelayString = "${movies.suggest.check-interval-ms:60000}",
+            initialDelayString = "${movies.suggest.initial-delay-ms:5000}")
+    public void scheduledRebuild() {
+        try {
+            String version = movieService.catalogVersion();
+            boolean stale = System.currentTimeMillis() - builtAt >= maxAgeMs;
+            if (stale || !version.equals(builtVersion)) {
+                rebuild(version);
+            }
+        } catch (RuntimeException e) {
+            // Keep serving the previous trie until Mongo is reachable again
+            log.warn("Title suggest rebuild failed: {}", e.getMessage());
+        }
+    }
+
+    public synchronized void rebuild(String version) {
+        List<Movie> movies = movieService.similaritySignals();
+        trie = buildTimer.record(() -> Trie.build(movies, topK));
+        builtVersion = version;
+        builtAt = System.currentTimeMillis();
+        log.info("Title suggest trie rebuilt: {} titles, {} nodes", trie.titles.length, trie.nodeCount());
+    }
+
+    /** Lower case without diacritics, the form both titles and prefixes are matched in. */
+    static String fold(String text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder folded = new StringBuilder(decomposed.length());
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) != Character.NON_SPACING_MARK) {
+                folded.append(Character.toLowerCase(c));
+            }
+        }
+        return folded.toString();
+    }
+
+    // -1 when the JVM cannot count per-thread allocation; then lookups just skip the summary
+    private long allocatedBytes() {
+        return threads == null ? -1 : threads.getCurrentThreadAllocatedBytes();
+    }
+
+    private static com.sun.management.ThreadMXBean allocationCounter() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean
+                && bean.isThreadAllocatedMemorySupported() && bean.isThreadAllocatedMemoryEnabled()) {
+            return bean;
+        }
+        return null;
+    }
+
+    public record Suggestion(String imdbID, String title, String poster) {
+    }
+
+    /**
+     * Immutable array-backed trie. Node 0 is the root. The children of node n are the slots
+     * {@code childStart[n]} to {@code childStart[n + 1]} of {@code childLabel}/{@code childNode};
+     * its best titles are {@code topIds[topStart[n]]} to {@code topIds[topStart[n + 1]]}. Title ids
+     * are ranks, so a lower id is a better title.
+     */
+    private static final class Trie {
+
+        static final Trie EMPTY = new Trie(new int[]{0, 0}, new char[0], new int[0], new int[]{0, 0}, new int[0], new Suggestion[0]);
+
+        private final int[] childStart;
+        private final char[] childLabel;
+        private final int[] childNode;
+        private final int[] topStart;
+        private final int[] topIds;
+        private final Suggestion[] titles;
+
+        private Trie(int[] childStart, char[] childLabel, int[] childNode, int[] topStart, int[] topIds, Suggestion[] titles) {
+            this.childStart = childStart;
+            this.childLabel = childLabel;
+            this.childNode = childNode;
+            this.topStart = topStart;
+            this.topIds = topIds;
+            this.titles = titles;
+        }
+
+        int nodeCount() {
+            return childStart.length - 1;
+        }
+
+        List<Suggestion> lookup(String prefix, int limit) {
+            int node = walk(prefix);
+            if (node < 0 || limit <= 0) {
+                return List.of();
+            }
+            int from = topStart[node];
+            int to = Math.min(topStart[node + 1], from + limit);
+            Suggestion[] found = new Suggestion[to - from];
+            for (int i = from; i < to; i++) {
+                found[i - from] = titles[topIds[i]];
+            }
+            return Arrays.asList(found);
+        }
+
+        // ASCII prefixes (the common case) are folded char by char without building a new string
+        private int walk(String prefix) {
+            int node = 0;
+            for (int i = 0; i < prefix.length(); i++) {
+                char c = prefix.charAt(i);
+                if (c >= 0x80) {
+                    return walkFolded(fold(prefix));
+                }
+                node = child(node, c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c);
+                if (node < 0) {
+                    return -1;
+                }
+            }
+            return node;
+        }
+
+        private int walkFolded(String folded) {
+            int node = 0;
+            for (int i = 0; i < folded.length() && node >= 0; i++) {
+                node = child(node, folded.charAt(i));
+            }
+            return node;
+        }
+
+        private int child(int node, char label) {
+            int low = childStart[node];
+            int high = childStart[node + 1] - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                char candidate = childLabel[mid];
+                if (candidate < label) {
+                    low = mid + 1;
+                } else if (candidate > label) {
+                    high = mid - 1;
+                } else {
+                    return childNode[mid];
+                }
+            }
+            return -1;
+        }
+
+        static Trie build(List<Movie> movies, int topK) {
+            List<Movie> ranked = movies.stream()
+                    .filter(movie -> movie.getTitle() != null && !movie.getTitle().isBlank())
+                    .sorted(Comparator.comparing((Movie movie) -> Objects.requireNonNullElse(movie.getReviewCount(), 0)).reversed()
+                            .thenComparing(Movie::getTitle))
+                    .toList();
+            Suggestion[] titles = new Suggestion[ranked.size()];
+            List<Key> keys = new ArrayList<>();
+            for (int id = 0; id < titles.length; id++) {
+                Movie movie = ranked.get(id);
+                titles[id] = new Suggestion(movie.getImdbID(), movie.getTitle(), movie.getPoster());
+                String folded = fold(movie.getTitle().strip());
+                for (int i = 0; i < folded.length(); i++) {
+                    if (i == 0 || (!Character.isLetterOrDigit(folded.charAt(i - 1)) && Character.isLetterOrDigit(folded.charAt(i)))) {
+                        keys.add(new Key(folded.substring(i), id));
+                    }
+                }
+            }
+            keys.sort(Comparator.comparing(Key::text).thenComparingInt(Key::id));
+
+            Builder builder = new Builder(keys, topK);
+            builder.node(0, keys.size(), 0);
+            return builder.finish(titles);
+        }
+
+        private record Key(String text, int id) {
+        }
+
+        /**
+         * Builds the arrays depth first from the sorted keys: the keys below a node are one
+         * contiguous range, split into child ranges by the character at the node's depth.
+         * Nodes are numbered in creation order, children of a node get consecutive slots.
+         */
+        private static final class Builder {
+            private final List<Key> keys;
+            private final int topK;
+            private final IntList childStart = new IntList();
+            private final CharList childLabel = new CharList();
+            private final IntList childNode = new IntList();
+            private final List<int[]> tops = new ArrayList<>();
+            private final List<int[]> pendingChildren = new ArrayList<>();
+            private final List<char[]> pendingLabels = new ArrayList<>();
+
+            Builder(List<Key> keys, int topK) {
+                this.keys = keys;
+                this.topK = topK;
+            }
+
+            // Returns the new node's number
+            int node(int from, int to, int depth) {
+                int self = tops.size();
+                tops.add(null);
+                pendingChildren.add(null);
+                pendingLabels.add(null);
+
+                IntList ownIds = new IntList();
+                IntList children = new IntList();
+                CharList labels = new CharList();
+                int i = from;
+                while (i < to) {
+                    String text = keys.get(i).text();
+                    if (text.length() == depth) {
+                        ownIds.add(keys.get(i).id());
+                        i++;
+                        continue;
+                    }
+                    char label = text.charAt(depth);
+                    int end = i + 1;
+                    while (end < to && keys.get(end).text().charAt(depth) == label) {
+                        end++;
+                    }
+                    labels.add(label);
+                    children.add(node(i, end, depth + 1));
+                    i = end;
+                }
+
+                int[] top = ownIds.toSortedDistinct();
+                for (int c = 0; c < children.size(); c++) {
+                    top = mergeTop(top, tops.get(children.get(c)), topK);
+                }
+                tops.set(self, top.length > topK ? Arrays.copyOf(top, topK) : top);
+                pendingChildren.set(self, children.toArray());
+                pendingLabels.set(self, labels.toArray());
+                return self;
+            }
+
+            Trie finish(Suggestion[] titles) {
+                int nodes = tops.size();
+                int[] topStart = new int[nodes + 1];
+                int topTotal = 0;
+                for (int n = 0; n < nodes; n++) {
+                    topStart[n] = topTotal;
+                    topTotal += tops.get(n).length;
+                    childStart.add(childLabel.size());
+                    char[] labels = pendingLabels.get(n);
+                    int[] children = pendingChildren.get(n);
+                    for (int c = 0; c < children.length; c++) {
+                        childLabel.add(labels[c]);
+                        childNode.add(children[c]);
+                    }
+                }
+                topStart[nodes] = topTotal;
+                childStart.add(childLabel.size());
+                int[] topIds = new int[topTotal];
+                for (int n = 0; n < nodes; n++) {
+                    System.arraycopy(tops.get(n), 0, topIds, topStart[n], tops.get(n).length);
+                }
+                return new Trie(childStart.toArray(), childLabel.toArray(), childNode.toArray(), topStart, topIds, titles);
+            }
+
+            // Union of two ascending id lists without duplicates, cut to the best topK
+            private static int[] mergeTop(int[] a, int[] b, int topK) {
+                int[] merged = new int[Math.min(topK, a.length + b.length)];
+                int i = 0;
+                int j = 0;
+                int n = 0;
+                while (n < merged.length && (i < a.length || j < b.length)) {
+                    int next;
+                    if (j >= b.length || (i < a.length && a[i] <= b[j])) {
+                        next = a[i++];
+                    } else {
+                        next = b[j++];
+                    }
+                    if (n == 0 || merged[n - 1] != next) {
+                        merged[n++] = next;
+                    }
+                }
+                return n == merged.length ? merged : Arrays.copyOf(merged, n);
+            }
+        }
+
+        private static final class IntList {
+            private int[] values = new int[4];
+            private int size;
+
+            void add(int value) {
+                if (size == values.length) {
+                    values = Arrays.copyOf(values, size * 2);
+                }
+                values[size++] = value;
+            }
+
+            int get(int index) {
+                return values[index];
+            }
+
+            int size() {
+                return size;
+            }
+
+            int[] toArray() {
+                return Arrays.copyOf(values, size);
+            }
+
+            int[] toSortedDistinct() {
+                int[] sorted = toArray();
+                Arrays.sort(sorted);
+                int distinct = 0;
+                for (int i = 0; i < sorted.length; i++) {
+                    if (distinct == 0 || sorted[distinct - 1] != sorted[i]) {
+                        sorted[distinct++] = sorted[i];
+                    }
+                }
+                return distinct == sorted.length ? sorted : Arrays.copyOf(sorted, distinct);
+            }
+        }
+
+        private static final class CharList {
+            private char[] values = new char[4];
+            private int size;
+
+            void add(char value) {
+                if (size == values.length) {
+                    values = Arrays.copyOf(values, size * 2);
+                }
+                values[size++] = value;
+            }
+
+            int size() {
+                return size;
+            }
+
+            char[] toArray() {
+                return Arrays.copyOf(values, size);
+            }
+        }
+    }
+}
@@ -0,0 +1,294 @@
+package com.theAkS.movies.movie;
+
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * In-process sliding-window activity counters for GET /movies/trending. Each movie gets a ring of
+ * LongAdder time buckets, so recording a view or review is a map lookup plus an uncontended add.
+ * Rankings are computed off the request path by {@link #refresh()}, and counters idle for longer
+ * than the largest window are dropped so memory follows recent activity rather than catalog size.
+ */
+@Component
+@Slf4j
+public class TrendingTracker {
+
+    private static final String SHARED_COLLECTION = "trending_counts";
+
+    private final MongoTemplate mongoTemplate;
+    private final MovieService movieService;
+    private final long bucketMillis;
+    private final int bucketCount;
+    private final int topK;
+    private final int reviewWeight;
+    private final boolean mergeInstances;
+    private final Map<String, Integer> windows = new LinkedHashMap<>();
+    private final String instanceId = UUID.randomUUID().toString();
+
+    private final ConcurrentHashMap<String, Counter> counters = new ConcurrentHashMap<>();
+    private volatile Map<String, List<TrendingMovie>> rankings = Map.of();
+
+    public TrendingTracker(MongoTemplate mongoTemplate,
+                           MovieService movieService,
+                           @Value("${movies.trending.bucket-seconds:60}") int bucketSeconds,
+                           @Value("${movies.trending.windows:5m,15m,1h}") List<String> windows,
+                           @Value("${movies.trending.top-k:50}") int topK,
+                           @Value("${movies.trending.review-weight:5}") int reviewWeight,
+                           @Value("${movies.trending.merge-instances:false}") boolean mergeInstances) {
+        this.mongoTemplate = mongoTemplate;
+        this.movieService = movieService;
+        this.bucketMillis = bucketSeconds * 1000L;
+        this.topK = topK;
+        this.reviewWeight = reviewWeight;
+        this.mergeInstances = mergeInstances;
+        int largest = 1;
+        for (String window : windows) {
+            int buckets = (int) Math.max(1, DurationStyle.detectAndParse(window.trim()).toMillis() / bucketMillis);
+            this.windows.put(window.trim(), buckets);
+            largest = Math.max(largest, buckets);
+        }
+        this.bucketCount = largest + 1; // one extra slot so the bucket being filled never evicts the oldest in-window one
+    }
+
+    public void recordView(String imdbId) {
+        record(imdbId, 1);
+    }
+
+    public void recordReview(String imdbId) {
+        record(imdbId, reviewWeight);
+    }
+
+    public boolean supportsWindow(String window) {
+        return windows.containsKey(window);
+    }
+
+    public List<String> supportedWindows() {
+        return List.copyOf(windows.keySet());
+    }
+
+    public List<TrendingMovie> trending(String window, int limit) {
+        List<TrendingMovie> ranking = rankings.getOrDefault(window, List.of());
+        return ranking.subList(0, Math.min(Math.max(limit, 0), ranking.size()));
+    }
+
+    @Scheduled(fixedDelayString = "${movies.trending.refresh-interval-ms:10000}")
+    public void refresh() {
+        long epoch = currentEpoch();
+        // Decided under the key's lock, so a record() that raced with it can tell (see record)
+        counters.forEach((imdbId, counter) -> {
+            if (counter.idle(epoch)) {
+                counters.computeIfPresent(imdbId, (id, current) -> current.retireIfIdle(epoch) ? null : current);
+            }
+        });
+
+        Map<String, List<TrendingMovie>> next = new HashMap<>();
+        for (Map.Entry<String, Integer> window : windows.entrySet()) {
+            Map<String, Long> scores = new HashMap<>();
+            counters.forEach((imdbId, counter) -> {
+                long score = counter.sum(epoch, window.getValue());
+                if (score > 0) {
+                    scores.put(imdbId, score);
+                }
+            });
+            next.put(window.getKey(), topK(mergeInstances ? mergeWithOtherInstances(window.getKey(), scores) : scores));
+        }
+
+        try {
+            resolveTitles(next);
+        } catch (RuntimeException e) {
+            log.warn("Could not resolve trending titles: {}", e.getMessage());
+        }
+        rankings = next;
+    }
+
+    private void record(String imdbId, int weight) {
+        long epoch = currentEpoch();
+        Counter counter = counters.computeIfAbsent(imdbId, id -> new Counter(bucketCount));
+        counter.add(epoch, weight);
+        if (counter.retired) {
+            // refresh() was evicting it; once we hold the key its decision is final
+            counters.compute(imdbId, (id, current) -> {
+                if (current == counter) {
+                    return current; // kept, and the count is in it
+                }
+                Counter live = current != null ? current : new Counter(bucketCount);
+                live.add(epoch, weight);
+                return live;
+            });
+        }
+    }
+
+    private long currentEpoch() {
+        return now() / bucketMillis;
+    }
+
+    // Overridden in tests to move time forward
+    long now() {
+        return System.currentTimeMillis();
+    }
+
+    int trackedMovies() {
+        return counters.size();
+    }
+
+    private List<TrendingMovie> topK(Map<String, Long> scores) {
+        PriorityQueue<Map.Entry<String, Long>> heap = new PriorityQueue<>(topK + 1, Map.Entry.comparingByValue());
+        for (Map.Entry<String, Long> entry : scores.entrySet()) {
+            heap.offer(entry);
+            if (heap.size() > topK) {
+                heap.poll();
+            }
+        }
+        List<TrendingMovie> top = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            Map.Entry<String, Long> entry = heap.poll();
+            top.add(new TrendingMovie(entry.getKey(), null, null, entry.getValue()));
+        }
+        Collections.reverse(top);
+        return top;
+    }
+
+    private void resolveTitles(Map<String, List<TrendingMovie>> next) {
+        List<String> imdbIds = next.values().stream()
+                .flatMap(List::stream)
+                .map(TrendingMovie::imdbID)
+                .distinct()
+                .collect(Collectors.toList());
+        if (imdbIds.isEmpty()) {
+            return;
+        }
+        Map<String, Movie> summaries = movieService.movieSummaries(imdbIds);
+        next.replaceAll((window, ranking) -> ranking.stream()
+                .map(entry -> {
+                    Movie movie = summaries.get(entry.imdbID());
+                    return movie == null ? entry
+                            : new TrendingMovie(entry.imdbID(), movie.getTitle(), movie.getPoster(), entry.score());
+                })
+                .collect(Collectors.toList()));
+    }
+
+    // Publishes this instance's scores and adds those published by other live instances
+    private Map<String, Long> mergeWithOtherInstances(String window, Map<String, Long> local) {
+        try {
+            long now = now();
+            // An array of {imdbId, count} rather than a document keyed by imdbId: ids are data, and
+            // one containing '.' or '$' would not be a valid field name
+            List<Document> published = new ArrayList<>(local.size());
+            local.forEach((imdbId, score) -> published.add(new Document("imdbId", imdbId).append("count", score)));
+            mongoTemplate.upsert(Query.query(Criteria.where("_id").is(instanceId + ":" + window)),
+                    new Update().set("window", window).set("updatedAt", now).set("scores", published),
+                    SHARED_COLLECTION);
+
+            Map<String, Long> merged = new HashMap<>(local);
+            Query others = Query.query(Criteria.where("window").is(window)
+                    .and("updatedAt").gte(now - 3 * bucketMillis)
+                    .and("_id").ne(instanceId + ":" + window));
+            for (Document other : mongoTemplate.find(others, Document.class, SHARED_COLLECTION)) {
+                // Instances still publishing the old keyed document are skipped until they are replaced
+                if (!(other.get("scores") instanceof List<?> scores)) {
+                    continue;
+                }
+                for (Object entry : scores) {
+                    if (entry instanceof Document score
+                            && score.get("imdbId") instanceof String imdbId
+                            && score.get("count") instanceof Number count) {
+                        merged.merge(imdbId, count.longValue(), Long::sum);
+                    }
+                }
+            }
+            return merged;
+        } catch (RuntimeException e) {
+            log.warn("Could not merge trending counts across instances: {}", e.getMessage());
+            return local;
+        }
+    }
+
+    public record TrendingMovie(String imdbID, String title, String poster, long score) {
+    }
+
+    /**
+     * Ring of time buckets. A slot is reused when time wraps around to it: the first writer of the
+     * new epoch swaps in a fresh bucket, so a writer still adding to the bucket it just read never
+     * has its count reset away.
+     */
+    private static final class Counter {
+        private final AtomicReferenceArray<Bucket> slots;
+        private volatile long lastEpoch;
+        // Set while refresh() decides whether to evict this counter; see record()
+        private volatile boolean retired;
+
+        Counter(int size) {
+            slots = new AtomicReferenceArray<>(size);
+        }
+
+        void add(long epoch, int weight) {
+            int slot = (int) (epoch % slots.length());
+            Bucket bucket = slots.get(slot);
+            while (bucket == null || bucket.epoch != epoch) {
+                if (bucket != null && bucket.epoch > epoch) {
+                    return; // a writer delayed past a whole ring; its bucket is already out of every window
+                }
+                Bucket fresh = new Bucket(epoch, new LongAdder());
+                if (slots.compareAndSet(slot, bucket, fresh)) {
+                    bucket = fresh;
+                } else {
+                    bucket = slots.get(slot);
+                }
+            }
+            bucket.count.add(weight);
+            if (lastEpoch != epoch) {
+                lastEpoch = epoch;
+            }
+        }
+
+        long sum(long epoch, int windowBuckets) {
+            long total = 0;
+            for (int i = 0; i < slots.length(); i++) {
+                Bucket bucket = slots.get(i);
+                long age = bucket == null ? -1 : epoch - bucket.epoch;
+                if (age >= 0 && age < windowBuckets) {
+                    total += bucket.count.sum();
+                }
+            }
+            return total;
+        }
+
+        boolean idle(long epoch) {
+            return epoch - lastEpoch > slots.length();
+        }
+
+        // Flag first, then check: a writer that missed the flag has already moved lastEpoch
+        boolean retireIfIdle(long epoch) {
+            retired = true;
+            if (idle(epoch)) {
+                return true;
+            }
+            retired = false;
+            return false;
+        }
+    }
+
+    private record Bucket(long epoch, LongAdder count) {
+    }
+}
@@ -8,18 +8,30 @@ import org.bson.types.ObjectId;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+import java.time.Instant;
+
+/**
+ * A review, stored in {@code reviews} or embedded in a {@link ReviewBucket}. Reviews written by
+ * a signed-in user carry {@code authorId} and always land in {@code reviews}, where the partial
+ * {@link #AUTHOR_INDEX} on (authorId, createdAt, _id) serves per-user history newest first.
+ */
 @Document(collection = "reviews")
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 public class Review {
+    public static final String AUTHOR_INDEX = "authorId_createdAt";
+
     @Id
     private ObjectId id;
     private String body;
+    private String imdbId;
+    private Long authorId; // Postgres user id; null for anonymous reviews and reviews written before authors were recorded
+    private Instant createdAt;
 
     // Keep constructor for backward compatibility if needed
     public Review(String body) {
         this.body = body;
     }
-}
\ No newline at end of file
+}
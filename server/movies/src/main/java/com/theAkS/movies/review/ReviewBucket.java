@@ -0,0 +1,35 @@
+package com.theAkS.movies.review;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.bson.types.ObjectId;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A fixed-size, time-ordered slice of one movie's reviews. Buckets are ordered by _id, which is
+ * taken from the time of their first review, so paging newest-to-oldest is an index walk on
+ * (imdbId, _id).
+ */
+@Document(collection = "review_buckets")
+@CompoundIndex(name = "imdbId_id", def = "{'imdbId': 1, '_id': -1}")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReviewBucket {
+    @Id
+    private ObjectId id;
+    private String imdbId;
+    private int count;
+    private boolean migrated; // written by ReviewBucketMigration; rebuilt if a migration is re-run
+
+    @Builder.Default
+    private List<Review> reviews = new ArrayList<>();
+}
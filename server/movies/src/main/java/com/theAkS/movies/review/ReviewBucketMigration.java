@@ -0,0 +1,123 @@
+package com.theAkS.movies.review;
+
+import com.theAkS.movies.movie.Movie;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * One-off migration from Movie.reviewIds to review buckets. Run the service once with
+ * {@code --movies.reviews.migrate-to-buckets=true}. Each movie is migrated independently and
+ * re-running is safe: references are pulled from reviewIds only once their bucket is written,
+ * and buckets from an interrupted run are rebuilt. References to reviews that no longer exist are
+ * moved to unresolvedReviewIds and logged. Reviews pushed while a movie is being migrated stay in
+ * reviewIds for the next run. The original review documents are left in place.
+ * <p>
+ * The runner is always registered and checks the flag when it runs, rather than being
+ * conditional on it: the fast-start AOT build would otherwise fix the decision at build time.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ReviewBucketMigration implements ApplicationRunner {
+
+    private final MongoTemplate mongoTemplate;
+    private final ReviewBucketService reviewBucketService;
+
+    @Value("${movies.reviews.migrate-to-buckets:false}")
+    private boolean enabled;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+        Query pending = Query.query(Criteria.where("reviewIds.0").exists(true));
+        pending.fields().include("imdbID").include("reviewIds");
+
+        int movies = 0;
+        int reviews = 0;
+        try (var documents = mongoTemplate.stream(pending, Document.class, mongoTemplate.getCollectionName(Movie.class))) {
+            for (Document document : (Iterable<Document>) documents::iterator) {
+                reviews += migrateMovie(document.getString("imdbID"), document.getList("reviewIds", Object.class, List.of()));
+                movies++;
+            }
+        }
+        log.info("Migrated {} reviews of {} movies to buckets of {}", reviews, movies, reviewBucketService.bucketSize());
+    }
+
+    int migrateMovie(String imdbId, List<?> references) {
+        // Raw entries by id, so exactly what is stored can be pulled; ids pushed meanwhile stay put
+        Map<ObjectId, Object> referencesById = new LinkedHashMap<>();
+        for (Object reference : references) {
+            ObjectId id = ReviewReferences.id(reference);
+            if (id != null) {
+                referencesById.putIfAbsent(id, reference);
+            }
+        }
+        // Buckets of an interrupted run still hold reviews the movie references; those are rebuilt
+        mongoTemplate.remove(Query.query(Criteria.where("imdbId").is(imdbId).and("migrated").is(true)
+                .and("reviews._id").in(referencesById.keySet())), ReviewBucket.class);
+
+        List<ObjectId> ordered = new ArrayList<>(referencesById.keySet());
+        ordered.sort(Comparator.naturalOrder()); // ObjectIds sort by creation time
+        int bucketSize = reviewBucketService.bucketSize();
+        int migrated = 0;
+        for (int from = 0; from < ordered.size(); from += bucketSize) {
+            List<ObjectId> chunk = ordered.subList(from, Math.min(from + bucketSize, ordered.size()));
+            Map<ObjectId, Review> byId = mongoTemplate.find(Query.query(Criteria.where("_id").in(chunk)), Review.class).stream()
+                    .collect(Collectors.toMap(Review::getId, Function.identity()));
+            List<Review> bucketReviews = new ArrayList<>(chunk.size());
+            List<ObjectId> unresolved = new ArrayList<>();
+            for (ObjectId id : chunk) {
+                Review review = byId.get(id);
+                if (review == null) {
+                    unresolved.add(id);
+                } else {
+                    bucketReviews.add(review);
+                }
+            }
+            if (!bucketReviews.isEmpty()) {
+                mongoTemplate.insert(ReviewBucket.builder()
+                        .id(new ObjectId(bucketReviews.get(0).getId().getDate()))
+                        .imdbId(imdbId)
+                        .count(bucketReviews.size())
+                        .migrated(true)
+                        .reviews(bucketReviews)
+                        .build());
+            }
+
+            // Each bucket is committed by pulling its own references; a crash before this leaves
+            // a bucket whose reviews are still referenced, which the next run rebuilds
+            Update update = new Update()
+                    .pullAll("reviewIds", chunk.stream().map(referencesById::get).toArray())
+                    .inc("reviewCount", bucketReviews.size());
+            if (!unresolved.isEmpty()) {
+                log.warn("{} review references of {} point at missing reviews; moved to unresolvedReviewIds: {}",
+                        unresolved.size(), imdbId, unresolved);
+                update.addToSet("unresolvedReviewIds").each(unresolved.toArray());
+            }
+            mongoTemplate.updateFirst(Query.query(Criteria.where("imdbID").is(imdbId)), update,
+                    mongoTemplate.getCollectionName(Movie.class));
+            migrated += bucketReviews.size();
+        }
+        return migrated;
+    }
+}
@@ -0,0 +1,127 @@
+package com.theAkS.movies.review;
+
+import com.theAkS.movies.movie.Movie;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bucket-pattern review storage: reviews live in {@link ReviewBucket} documents of at most
+ * {@code movies.reviews.bucket-size} entries instead of an ever-growing reviewIds array on the movie.
+ * Enabled with {@code movies.reviews.storage=buckets}.
+ */
+@Service
+public class ReviewBucketService {
+
+    public enum Storage {
+        REFERENCES,
+        BUCKETS
+    }
+
+    private final MongoTemplate mongoTemplate;
+    private final Storage storage;
+    private final int bucketSize;
+    private final Timer appendTimer;
+    private final Timer pageTimer;
+
+    public ReviewBucketService(MongoTemplate mongoTemplate,
+                               MeterRegistry meterRegistry,
+                               @Value("${movies.reviews.storage:references}") Storage storage,
+                               @Value("${movies.reviews.bucket-size:100}") int bucketSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.storage = storage;
+        this.bucketSize = bucketSize;
+        this.appendTimer = Timer.builder("movies.reviews.bucket.append").register(meterRegistry);
+        this.pageTimer = Timer.builder("movies.reviews.bucket.page").register(meterRegistry);
+    }
+
+    public boolean enabled() {
+        return storage == Storage.BUCKETS;
+    }
+
+    public int bucketSize() {
+        return bucketSize;
+    }
+
+    public Review append(String imdbId, Review review) {
+        appendTimer.record(() -> {
+            // Newest bucket with room, or a fresh one; the movie only keeps a counter
+            Query openBucket = Query.query(Criteria.where("imdbId").is(imdbId).and("count").lt(bucketSize).and("migrated").ne(true))
+                    .with(Sort.by(Sort.Direction.DESC, "_id"));
+            mongoTemplate.findAndModify(openBucket,
+                    // Client-side _id keeps bucket order time-based whoever performs the upsert
+                    new Update().push("reviews", review).inc("count", 1).setOnInsert("_id", new ObjectId()),
+                    FindAndModifyOptions.options().upsert(true).returnNew(true),
+                    ReviewBucket.class);
+            mongoTemplate.updateFirst(Query.query(Criteria.where("imdbID").is(imdbId)),
+                    new Update().inc("reviewCount", 1), Movie.class);
+        });
+        return review;
+    }
+
+    /**
+     * Returns the bucket older than {@code cursor} (or the newest bucket when cursor is null),
+     * with its reviews newest first.
+     */
+    public ReviewPage page(String imdbId, String cursor) {
+        return pageTimer.record(() -> {
+            Criteria criteria = Criteria.where("imdbId").is(imdbId);
+            if (cursor != null) {
+                if (!ObjectId.isValid(cursor)) {
+                    return new ReviewPage(List.of(), null);
+                }
+                criteria = criteria.and("_id").lt(new ObjectId(cursor));
+            }
+            ReviewBucket bucket = mongoTemplate.findOne(
+                    Query.query(criteria).with(Sort.by(Sort.Direction.DESC, "_id")), ReviewBucket.class);
+            if (bucket == null) {
+                return new ReviewPage(List.of(), null);
+            }
+            boolean hasOlder = mongoTemplate.exists(
+                    Query.query(Criteria.where("imdbId").is(imdbId).and("_id").lt(bucket.getId())), ReviewBucket.class);
+            return new ReviewPage(newestFirst(bucket.getReviews()), hasOlder ? bucket.getId().toHexString() : null);
+        });
+    }
+
+    // Newest bucket of every requested movie in a single aggregation
+    public Map<String, List<Review>> latestReviews(Collection<String> imdbIds) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("imdbId").in(imdbIds)),
+                Aggregation.sort(Sort.by(Sort.Direction.DESC, "_id")),
+                Aggregation.group("imdbId").first("reviews").as("reviews"));
+        Map<String, List<Review>> latest = new HashMap<>();
+        for (Document group : mongoTemplate.aggregate(aggregation, ReviewBucket.class, Document.class)) {
+            List<Review> reviews = new ArrayList<>();
+            for (Object raw : group.getList("reviews", Object.class, List.of())) {
+                if (raw instanceof Document document) {
+                    reviews.add(mongoTemplate.getConverter().read(Review.class, document));
+                }
+            }
+            latest.put(group.getString("_id"), newestFirst(reviews));
+        }
+        return latest;
+    }
+
+    private static List<Review> newestFirst(List<Review> reviews) {
+        List<Review> copy = new ArrayList<>(reviews);
+        Collections.reverse(copy);
+        return copy;
+    }
+}
@@ -2,12 +2,14 @@ package com.theAkS.movies.review;
 
 import com.theAkS.movies.dto.CreateReviewDto;
 import com.theAkS.movies.dto.ReviewDto;
+import com.theAkS.movies.user.UserDetailsServiceImpl.UserPrincipal;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
-@RequestMapping("/api/v1/reviews")
+@RequestMapping("reviews")
 @CrossOrigin(origins = "*")
 public class ReviewController {
 
@@ -18,8 +20,10 @@ public class ReviewController {
     }
 
     @PostMapping
-    public ResponseEntity<ReviewDto> createReview(@RequestBody CreateReviewDto payload) {
-        Review createdReview = reviewService.createReview(payload.getReviewBody(), payload.getImdbId());
+    public ResponseEntity<ReviewDto> createReview(@RequestBody CreateReviewDto payload,
+                                                  @AuthenticationPrincipal UserPrincipal principal) {
+        Long authorId = principal == null ? null : principal.getId();
+        Review createdReview = reviewService.createReview(payload.getReviewBody(), payload.getImdbId(), authorId);
         return new ResponseEntity<>(new ReviewDto(createdReview.getBody()), HttpStatus.CREATED);
     }
 }
\ No newline at end of file
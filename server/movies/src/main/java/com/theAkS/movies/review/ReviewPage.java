@@ -0,0 +1,9 @@
+package com.theAkS.movies.review;
+
+import java.util.List;
+
+/**
+ * One page of a movie's reviews, newest first. {@code nextCursor} is null on the last page.
+ */
+public record ReviewPage(List<Review> reviews, String nextCursor) {
+}
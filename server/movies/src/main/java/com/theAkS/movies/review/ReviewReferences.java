@@ -0,0 +1,41 @@
+package com.theAkS.movies.review;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the raw reviewIds array of a movie document without resolving the @DocumentReference.
+ */
+public final class ReviewReferences {
+
+    private ReviewReferences() {
+    }
+
+    public static List<ObjectId> ids(Object raw) {
+        if (!(raw instanceof List<?> values)) {
+            return List.of();
+        }
+        List<ObjectId> ids = new ArrayList<>(values.size());
+        for (Object value : values) {
+            ObjectId id = id(value);
+            if (id != null) {
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+
+    /** The review id of one raw reviewIds entry, or null when it is neither an id nor an embedded review. */
+    public static ObjectId id(Object value) {
+        if (value instanceof ObjectId id) {
+            return id;
+        }
+        if (value instanceof Document embedded && embedded.get("_id") instanceof ObjectId id) {
+            return id;
+        }
+        return null;
+    }
+}
@@ -1,30 +1,115 @@
 package com.theAkS.movies.review;
 
+import com.theAkS.movies.exception.ResourceNotFoundException;
+import com.theAkS.movies.moderation.ReviewEnrichmentPipeline;
 import com.theAkS.movies.movie.Movie;
+import com.theAkS.movies.movie.MovieRepository;
+import com.theAkS.movies.movie.TrendingTracker;
+import com.theAkS.movies.support.DependencyGuard;
 import lombok.RequiredArgsConstructor;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
 @Service
 @RequiredArgsConstructor
 public class ReviewService {
 
     private final ReviewRepository reviewRepository;
+    private final MovieRepository movieRepository;
     private final MongoTemplate mongoTemplate; // Use MongoTemplate for complex updates
+    private final DependencyGuard dependencyGuard;
+    private final ReviewBucketService reviewBucketService;
+    private final TrendingTracker trendingTracker;
+    private final ReviewStreamHub reviewStreamHub;
+    private final ReviewEnrichmentPipeline reviewEnrichmentPipeline;
 
-    public Review createReview(String reviewBody, String imdbId) {
-        // Create and insert the new review, which generates its ID
-        Review review = reviewRepository.insert(new Review(reviewBody));
+    /** {@code authorId} is the signed-in user's id, or null for an anonymous review. */
+    public Review createReview(String reviewBody, String imdbId, Long authorId) {
+        // Checked up front so an unknown id never reaches the trending counters, the stream or a bucket
+        if (imdbId == null || !dependencyGuard.mongo(() -> movieRepository.existsByImdbID(imdbId))) {
+            throw new ResourceNotFoundException("Movie not found: " + imdbId);
+        }
+        Review review = Review.builder()
+                .id(new ObjectId())
+                .body(reviewBody)
+                .imdbId(imdbId)
+                .authorId(authorId)
+                // Mongo stores milliseconds; truncate so the value matches what paging cursors compare against
+                .createdAt(Instant.now().truncatedTo(ChronoUnit.MILLIS))
+                .build();
+        if (reviewBucketService.enabled()) {
+            dependencyGuard.mongo(() -> reviewBucketService.append(imdbId, review));
+            if (authorId != null) {
+                // Buckets are per movie; the author's copy keeps their history on the author index
+                dependencyGuard.mongo(() -> reviewRepository.insert(review));
+            }
+        } else {
+            insertReference(review, imdbId);
+        }
+        trendingTracker.recordReview(imdbId);
+        reviewStreamHub.publish(imdbId, review);
+        // Spam, sentiment and moderation flags are filled in asynchronously
+        reviewEnrichmentPipeline.submit(imdbId, review);
+        return review;
+    }
 
-        // Use MongoTemplate to update the Movie document by pushing the new review
-        // into the reviewIds array.
-        mongoTemplate.update(Movie.class)
-                .matching(Criteria.where("imdbID").is(imdbId))
-                .apply(new Update().push("reviewIds").value(review))
-                .first();
+    /**
+     * One page of an author's reviews, newest first. The cursor is the (createdAt, _id) of the
+     * last review on the previous page, so every page is a bounded walk of the author index no
+     * matter how many reviews come before it. An unparseable cursor yields an empty page.
+     */
+    public ReviewPage reviewsByAuthor(long authorId, String cursor, int limit) {
+        Criteria criteria = Criteria.where("authorId").is(authorId);
+        if (cursor != null) {
+            int separator = cursor.indexOf('_');
+            if (separator < 0 || !ObjectId.isValid(cursor.substring(separator + 1))) {
+                return new ReviewPage(List.of(), null);
+            }
+            Instant createdAt;
+            try {
+                createdAt = Instant.ofEpochMilli(Long.parseLong(cursor.substring(0, separator)));
+            } catch (NumberFormatException e) {
+                return new ReviewPage(List.of(), null);
+            }
+            ObjectId id = new ObjectId(cursor.substring(separator + 1));
+            criteria = criteria.orOperator(
+                    Criteria.where("createdAt").lt(createdAt),
+                    Criteria.where("createdAt").is(createdAt).and("_id").lt(id));
+        }
+        Query query = Query.query(criteria)
+                .with(Sort.by(Sort.Direction.DESC, "createdAt", "_id"))
+                .withHint(Review.AUTHOR_INDEX)
+                .limit(limit + 1); // one extra tells us whether there is a next page
+        query.fields().include("body", "imdbId", "authorId", "createdAt");
 
-        return review;
+        List<Review> reviews = dependencyGuard.mongo(() -> mongoTemplate.find(query, Review.class));
+        if (reviews.size() <= limit) {
+            return new ReviewPage(reviews, null);
+        }
+        Review last = reviews.get(limit - 1);
+        return new ReviewPage(reviews.subList(0, limit), last.getCreatedAt().toEpochMilli() + "_" + last.getId().toHexString());
+    }
+
+    private void insertReference(Review review, String imdbId) {
+        dependencyGuard.mongo(() -> {
+            // Insert the new review under its client-generated ID
+            reviewRepository.insert(review);
+
+            // Use MongoTemplate to update the Movie document by pushing the new review
+            // into the reviewIds array.
+            mongoTemplate.update(Movie.class)
+                    .matching(Criteria.where("imdbID").is(imdbId))
+                    .apply(new Update().push("reviewIds").value(review))
+                    .first();
+        });
     }
-}
\ No newline at end of file
+}
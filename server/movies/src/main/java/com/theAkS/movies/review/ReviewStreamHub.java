@@ -0,0 +1,317 @@
+package com.theAkS.movies.review;
+
+import com.theAkS.movies.dto.ReviewDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * In-process fan-out of new reviews to the SSE subscribers of GET /movies/{imdbId}/reviews/stream.
+ * <p>
+ * Publishing never touches a socket: each subscriber has a bounded queue that a small sender pool
+ * drains, one drain at a time per subscriber. A subscriber whose queue is full is evicted instead
+ * of slowing everyone else down; the browser's EventSource reconnects and resumes with
+ * Last-Event-ID, which is the review's ObjectId. The last {@code replay-size} events of each movie
+ * are kept for that resume; a client that fell further behind gets a {@code resync} event and
+ * should reload the reviews page. Reviews published while a resuming client's replay is being queued
+ * are held back and sent after it, minus any the replay already covered, so each review reaches a
+ * subscriber once and in order. A movie's replay buffer is dropped once it has had no subscribers
+ * and no new review for {@code replay-ttl-ms}, so the buffers follow recent activity rather than
+ * every movie ever reviewed.
+ * <p>
+ * Memory per connection on the hub side is the Subscriber, its SseEmitter and a queue array of
+ * {@code buffer-size} references (roughly 1 KB with the defaults, estimated from those objects);
+ * Tomcat's own per-connection socket buffers come on top of that.
+ */
+@Component
+@Slf4j
+public class ReviewStreamHub {
+
+    private final long timeoutMs;
+    private final long reconnectMs;
+    private final int bufferSize;
+    private final int replaySize;
+    private final int maxSubscribers;
+    private final long replayTtlMs;
+    private final ExecutorService senders;
+
+    private final Map<String, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final Map<String, Replay> replay = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    // Numbers events in the order they enter their movie's replay buffer
+    private final AtomicLong sequence = new AtomicLong();
+    private final Counter publishedCounter;
+    private final Counter evictedCounter;
+
+    public ReviewStreamHub(MeterRegistry meterRegistry,
+                           @Value("${movies.stream.timeout-ms:1800000}") long timeoutMs,
+                           @Value("${movies.stream.reconnect-ms:3000}") long reconnectMs,
+                           @Value("${movies.stream.buffer-size:32}") int bufferSize,
+                           @Value("${movies.stream.replay-size:50}") int replaySize,
+                           @Value("${movies.stream.max-subscribers:10000}") int maxSubscribers,
+                           @Value("${movies.stream.sender-threads:8}") int senderThreads,
+                           @Value("${movies.stream.replay-ttl-ms:600000}") long replayTtlMs) {
+        this.timeoutMs = timeoutMs;
+        this.reconnectMs = reconnectMs;
+        this.bufferSize = bufferSize;
+        this.replaySize = replaySize;
+        this.maxSubscribers = maxSubscribers;
+        this.replayTtlMs = replayTtlMs;
+        AtomicInteger threadIds = new AtomicInteger();
+        this.senders = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "review-stream-" + threadIds.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.publishedCounter = Counter.builder("movies.reviews.stream.published").register(meterRegistry);
+        this.evictedCounter = Counter.builder("movies.reviews.stream.evicted").register(meterRegistry);
+        meterRegistry.gauge("movies.reviews.stream.subscribers", subscriberCount);
+    }
+
+    /**
+     * Opens a stream for the movie, replaying what the client missed since {@code lastEventId}.
+     * Empty when the subscriber limit is reached.
+     */
+    public Optional<SseEmitter> subscribe(String imdbId, String lastEventId) {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            return Optional.empty();
+        }
+        Subscriber subscriber = new Subscriber(imdbId, newEmitter(timeoutMs), lastEventId != null);
+        subscriber.emitter.onCompletion(() -> remove(subscriber));
+        subscriber.emitter.onTimeout(() -> remove(subscriber));
+        subscriber.emitter.onError(error -> remove(subscriber));
+
+        // Register before reading the replay buffer so nothing published in between is lost; the
+        // subscriber holds such reviews back until the replay is queued (see Subscriber.replay)
+        subscribers.computeIfAbsent(imdbId, id -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        subscriber.offer(SseEmitter.event().reconnectTime(reconnectMs).comment("connected"));
+        if (lastEventId != null) {
+            subscriber.replay(missedSince(imdbId, lastEventId));
+        }
+        return Optional.of(subscriber.emitter);
+    }
+
+    // Overridden in tests to capture what is sent
+    SseEmitter newEmitter(long timeoutMs) {
+        return new SseEmitter(timeoutMs);
+    }
+
+    public void publish(String imdbId, Review review) {
+        ReviewDto dto = new ReviewDto(review.getBody());
+        AtomicReference<StreamEvent> appended = new AtomicReference<>();
+        // Appended inside compute so the eviction sweep cannot drop the buffer between lookup and
+        // append, and so a movie's sequence numbers follow its buffer order
+        replay.compute(imdbId, (id, recent) -> {
+            Replay buffer = recent == null ? new Replay(replaySize) : recent;
+            StreamEvent event = new StreamEvent(sequence.incrementAndGet(), review.getId(), dto);
+            buffer.add(event, replaySize, now());
+            appended.set(event);
+            return buffer;
+        });
+        publishedCounter.increment();
+        for (Subscriber subscriber : subscribers.getOrDefault(imdbId, Set.of())) {
+            subscriber.deliver(appended.get());
+        }
+    }
+
+    // Keeps idle connections alive through proxies and surfaces dead clients on the next write
+    @Scheduled(fixedDelayString = "${movies.stream.heartbeat-ms:15000}")
+    public void heartbeat() {
+        for (Set<Subscriber> movieSubscribers : subscribers.values()) {
+            for (Subscriber subscriber : movieSubscribers) {
+                subscriber.offer(SseEmitter.event().comment("heartbeat"));
+            }
+        }
+        evictIdleReplays();
+    }
+
+    private void evictIdleReplays() {
+        long cutoff = now() - replayTtlMs;
+        for (String imdbId : replay.keySet()) {
+            replay.computeIfPresent(imdbId, (id, recent) ->
+                    recent.lastPublished < cutoff && !subscribers.containsKey(id) ? null : recent);
+        }
+    }
+
+    long now() {
+        return System.currentTimeMillis();
+    }
+
+    public int subscriberCount() {
+        return subscriberCount.get();
+    }
+
+    int replayBuffers() {
+        return replay.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.values().forEach(movieSubscribers -> movieSubscribers.forEach(subscriber -> subscriber.emitter.complete()));
+        senders.shutdownNow();
+    }
+
+    private Missed missedSince(String imdbId, String lastEventId) {
+        Replay recent = replay.get(imdbId);
+        if (!ObjectId.isValid(lastEventId) || recent == null) {
+            return new Missed(false, List.of(), 0);
+        }
+        ObjectId lastSeen = new ObjectId(lastEventId);
+        List<StreamEvent> missed = new ArrayList<>();
+        synchronized (recent) {
+            StreamEvent oldest = recent.events.peekFirst();
+            long through = recent.events.isEmpty() ? 0 : recent.events.peekLast().sequence();
+            if (oldest != null && recent.events.size() == replaySize && oldest.id().compareTo(lastSeen) > 0) {
+                return new Missed(true, List.of(), through);
+            }
+            for (StreamEvent event : recent.events) {
+                if (event.id().compareTo(lastSeen) > 0) {
+                    missed.add(event);
+                }
+            }
+            return new Missed(false, missed, through);
+        }
+    }
+
+    private void remove(Subscriber subscriber) {
+        if (subscriber.closed.compareAndSet(false, true)) {
+            subscriberCount.decrementAndGet();
+            subscribers.computeIfPresent(subscriber.imdbId, (id, movieSubscribers) -> {
+                movieSubscribers.remove(subscriber);
+                return movieSubscribers.isEmpty() ? null : movieSubscribers;
+            });
+        }
+    }
+
+    // What a resuming client missed, and the sequence number of the newest event the buffer held then
+    private record Missed(boolean resync, List<StreamEvent> events, long through) {
+    }
+
+    private record StreamEvent(long sequence, ObjectId id, ReviewDto review) {
+        SseEmitter.SseEventBuilder toSse() {
+            return SseEmitter.event().id(id.toHexString()).name("review").data(review, MediaType.APPLICATION_JSON);
+        }
+    }
+
+    // The last events of one movie; guarded by itself for readers outside replay.compute
+    private static final class Replay {
+        private final ArrayDeque<StreamEvent> events;
+        private volatile long lastPublished;
+
+        Replay(int size) {
+            this.events = new ArrayDeque<>(size);
+        }
+
+        synchronized void add(StreamEvent event, int size, long now) {
+            if (events.size() == size) {
+                events.pollFirst();
+            }
+            events.addLast(event);
+            lastPublished = now;
+        }
+    }
+
+    private final class Subscriber {
+        private final String imdbId;
+        private final SseEmitter emitter;
+        private final ArrayBlockingQueue<SseEmitter.SseEventBuilder> queue = new ArrayBlockingQueue<>(bufferSize);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        // Live reviews that arrive before the replay is queued; null once it is. Guarded by this
+        private List<StreamEvent> heldBack;
+        // Newest sequence number the replay covered; live events up to it were already replayed
+        private long replayedThrough;
+
+        Subscriber(String imdbId, SseEmitter emitter, boolean resuming) {
+            this.imdbId = imdbId;
+            this.emitter = emitter;
+            this.heldBack = resuming ? new ArrayList<>() : null;
+        }
+
+        void deliver(StreamEvent event) {
+            synchronized (this) {
+                if (heldBack != null) {
+                    heldBack.add(event);
+                    return;
+                }
+                if (event.sequence() <= replayedThrough) {
+                    return;
+                }
+            }
+            offer(event.toSse());
+        }
+
+        // Queues the missed reviews (or a resync), then the held-back ones the replay did not cover
+        synchronized void replay(Missed missed) {
+            if (missed.resync()) {
+                offer(SseEmitter.event().name("resync").data(""));
+            } else {
+                missed.events().forEach(event -> offer(event.toSse()));
+            }
+            replayedThrough = missed.through();
+            for (StreamEvent event : heldBack) {
+                if (event.sequence() > replayedThrough) {
+                    offer(event.toSse());
+                }
+            }
+            heldBack = null;
+        }
+
+        void offer(SseEmitter.SseEventBuilder event) {
+            if (closed.get()) {
+                return;
+            }
+            if (!queue.offer(event)) {
+                evictedCounter.increment();
+                log.debug("Evicting slow review stream subscriber for {}", imdbId);
+                remove(this);
+                emitter.complete();
+                return;
+            }
+            if (draining.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            do {
+                SseEmitter.SseEventBuilder event;
+                while ((event = queue.poll()) != null) {
+                    try {
+                        emitter.send(event);
+                    } catch (IOException | IllegalStateException e) {
+                        remove(this);
+                        queue.clear();
+                        return;
+                    }
+                }
+                draining.set(false);
+                // An offer may have raced with the reset above; take it over if nobody else did
+            } while (!queue.isEmpty() && draining.compareAndSet(false, true));
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.theAkS.movies.review;
+
+import com.theAkS.movies.dto.UserReviewDto;
+import com.theAkS.movies.dto.UserReviewPageDto;
+import com.theAkS.movies.user.UserDetailsServiceImpl.UserPrincipal;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.stream.Collectors;
+
+// Per-author review history; /users/me needs a signed-in user, /admin/** is restricted to ROLE_ADMIN
+@RestController
+@RequiredArgsConstructor
+public class UserReviewController {
+
+    private static final int MAX_LIMIT = 100;
+
+    private final ReviewService reviewService;
+
+    @GetMapping("/users/me/reviews")
+    public ResponseEntity<UserReviewPageDto> getMyReviews(@AuthenticationPrincipal UserPrincipal principal,
+                                                          @RequestParam(required = false) String cursor,
+                                                          @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(page(principal.getId(), cursor, limit));
+    }
+
+    @GetMapping("/admin/users/{userId}/reviews")
+    public ResponseEntity<UserReviewPageDto> getUserReviews(@PathVariable long userId,
+                                                            @RequestParam(required = false) String cursor,
+                                                            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(page(userId, cursor, limit));
+    }
+
+    private UserReviewPageDto page(long authorId, String cursor, int limit) {
+        ReviewPage page = reviewService.reviewsByAuthor(authorId, cursor, Math.min(Math.max(limit, 1), MAX_LIMIT));
+        return new UserReviewPageDto(
+                page.reviews().stream()
+                        .map(review -> new UserReviewDto(
+                                review.getId().toHexString(),
+                                review.getImdbId(),
+                                review.getBody(),
+                                review.getCreatedAt()))
+                        .collect(Collectors.toList()),
+                page.nextCursor());
+    }
+}
@@ -0,0 +1,109 @@
+package com.theAkS.movies.support;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Caps the requests in flight per partition with a {@link GradientLimit}, so that when Mongo or
+ * Postgres slow down, the excess is answered with 503 straight away instead of piling up on
+ * Tomcat threads. Partitions, each limited separately so a login storm cannot starve browsing:
+ * <ul>
+ *   <li>{@code auth}: everything under /auth (login and register spend their time in BCrypt)</li>
+ *   <li>{@code catalog}: movie and image reads, the batch lookup, and review reads: a movie's
+ *   reviews, a user's review history and the moderation queue</li>
+ *   <li>{@code review-writes}: review creation and moderation flags</li>
+ * </ul>
+ * Other requests (actuator, the rest of admin and moderation, the review SSE stream) are not limited. Limits start at
+ * {@code movies.limiter.<partition>.initial-limit} and stay within its min-limit and max-limit.
+ * Installed in the security chain ahead of {@link com.theAkS.movies.auth.AuthTokenFilter}, so a
+ * shed request costs no token check or user lookup.
+ */
+@Component
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private static final byte[] BUSY = "{\"message\":\"Service temporarily unavailable: too many concurrent requests\"}"
+            .getBytes(StandardCharsets.US_ASCII);
+
+    private final boolean enabled;
+    private final GradientLimit auth;
+    private final GradientLimit catalog;
+    private final GradientLimit reviewWrites;
+
+    public ConcurrencyLimitFilter(MeterRegistry meterRegistry,
+                                  Environment environment,
+                                  @Value("${movies.limiter.enabled:true}") boolean enabled) {
+        this.enabled = enabled;
+        this.auth = limit("auth", 20, 200, environment, meterRegistry);
+        this.catalog = limit("catalog", 50, 400, environment, meterRegistry);
+        this.reviewWrites = limit("review-writes", 20, 200, environment, meterRegistry);
+    }
+
+    private static GradientLimit limit(String partition, int initialLimit, int maxLimit,
+                                       Environment environment, MeterRegistry meterRegistry) {
+        String prefix = "movies.limiter." + partition + ".";
+        return new GradientLimit(partition,
+                environment.getProperty(prefix + "initial-limit", Integer.class, initialLimit),
+                environment.getProperty(prefix + "min-limit", Integer.class, 4),
+                environment.getProperty(prefix + "max-limit", Integer.class, maxLimit),
+                meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        GradientLimit limit = enabled ? partition(request) : null;
+        if (limit == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        if (!limit.tryAcquire()) {
+            // Written directly: a sendError dispatch to /error would be turned into a 401
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setContentLength(BUSY.length);
+            response.getOutputStream().write(BUSY);
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            limit.release(start);
+        }
+    }
+
+    private GradientLimit partition(HttpServletRequest request) {
+        String path = request.getServletPath();
+        if (path.startsWith("/auth/")) {
+            return auth;
+        }
+        boolean read = "GET".equals(request.getMethod()) || "HEAD".equals(request.getMethod());
+        if (path.startsWith("/movies")) {
+            if (path.endsWith("/reviews/stream")) {
+                return null; // open for as long as the client listens
+            }
+            return read || path.equals("/movies/batch") ? catalog : null;
+        }
+        if (path.contains("/reviews")) {
+            if (!read) {
+                return reviewWrites;
+            }
+            // /users/me/reviews, /admin/users/{id}/reviews and /moderation/reviews
+            return path.endsWith("/reviews") ? catalog : null;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,69 @@
+package com.theAkS.movies.support;
+
+import com.theAkS.movies.timing.RequestTiming;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+
+/**
+ * Runs calls to an external dependency inside that dependency's bulkhead and circuit breaker,
+ * so a slow Postgres cannot starve the Tomcat threads that Mongo-backed reads need (and vice versa).
+ * Limits and breaker thresholds come from the resilience4j.* properties.
+ */
+@Component
+public class DependencyGuard {
+
+    public static final String MONGO = "mongo";
+    public static final String POSTGRES = "postgres";
+
+    private final Bulkhead mongoBulkhead;
+    private final CircuitBreaker mongoCircuitBreaker;
+    private final Bulkhead postgresBulkhead;
+    private final CircuitBreaker postgresCircuitBreaker;
+
+    public DependencyGuard(BulkheadRegistry bulkheadRegistry, CircuitBreakerRegistry circuitBreakerRegistry) {
+        this.mongoBulkhead = bulkheadRegistry.bulkhead(MONGO);
+        this.mongoCircuitBreaker = circuitBreakerRegistry.circuitBreaker(MONGO);
+        this.postgresBulkhead = bulkheadRegistry.bulkhead(POSTGRES);
+        this.postgresCircuitBreaker = circuitBreakerRegistry.circuitBreaker(POSTGRES);
+    }
+
+    public <T> T mongo(Supplier<T> call) {
+        return guard(MONGO, call, mongoBulkhead, mongoCircuitBreaker);
+    }
+
+    public void mongo(Runnable call) {
+        guard(MONGO, () -> {
+            call.run();
+            return null;
+        }, mongoBulkhead, mongoCircuitBreaker);
+    }
+
+    public <T> T postgres(Supplier<T> call) {
+        return guard(POSTGRES, call, postgresBulkhead, postgresCircuitBreaker);
+    }
+
+    public Bulkhead mongoBulkhead() {
+        return mongoBulkhead;
+    }
+
+    public Bulkhead postgresBulkhead() {
+        return postgresBulkhead;
+    }
+
+    // The request timing span includes time spent waiting for a bulkhead permit
+    private static <T> T guard(String dependency, Supplier<T> call, Bulkhead bulkhead, CircuitBreaker circuitBreaker) {
+        long start = RequestTiming.begin();
+        try {
+            // Breaker sits inside the bulkhead: a full bulkhead is load shedding, not a dependency failure
+            return Bulkhead.decorateSupplier(bulkhead,
+                    CircuitBreaker.decorateSupplier(circuitBreaker, call)).get();
+        } finally {
+            RequestTiming.end(dependency, start);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.theAkS.movies.support;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A concurrency limit that follows latency instead of a fixed pool size. Each window of samples
+ * (at least {@link #WINDOW_NANOS} and {@link #MIN_SAMPLES}) yields a short-term average response
+ * time, which is compared with a slow moving long-term average:
+ * <pre>
+ *   gradient = clamp(1.5 * longRtt / shortRtt, 0.5, 1)
+ *   limit    = 0.8 * limit + 0.2 * (limit * gradient + sqrt(limit))
+ * </pre>
+ * While latency holds steady the limit creeps up by a fraction of its square root per window;
+ * once requests queue behind a slow dependency and latency climbs past 1.5 times the usual, the
+ * limit shrinks by up to 10% per window. Windows in which fewer than half the permits were used
+ * say nothing about capacity and leave the limit alone.
+ * <p>
+ * Callers over the limit are turned away by {@link #tryAcquire()}, never queued.
+ */
+public class GradientLimit {
+
+    static final long WINDOW_NANOS = TimeUnit.MILLISECONDS.toNanos(500);
+    static final int MIN_SAMPLES = 10;
+    private static final double RTT_TOLERANCE = 1.5;
+    private static final double SMOOTHING = 0.2;
+    // Long-term average spans about a minute of windows
+    private static final double LONG_RTT_ALPHA = 2.0 / (120 + 1);
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Counter rejected;
+
+    private volatile double limit;
+    private volatile double longRtt;
+    private volatile double shortRtt;
+
+    // Guarded by this
+    private long windowStart;
+    private long windowSum;
+    private int windowCount;
+    private int windowMaxInFlight;
+
+    public GradientLimit(String partition, int initialLimit, int minLimit, int maxLimit, MeterRegistry meterRegistry) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.limit = Math.min(this.maxLimit, Math.max(this.minLimit, initialLimit));
+        this.windowStart = System.nanoTime();
+        Gauge.builder("movies.limiter.limit", this, GradientLimit::limit)
+                .tag("partition", partition)
+                .description("Requests allowed in flight at once")
+                .register(meterRegistry);
+        Gauge.builder("movies.limiter.inflight", inFlight, AtomicInteger::get)
+                .tag("partition", partition)
+                .register(meterRegistry);
+        Gauge.builder("movies.limiter.rtt", this, l -> l.shortRtt / 1e6)
+                .tag("partition", partition).tag("window", "short")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        Gauge.builder("movies.limiter.rtt", this, l -> l.longRtt / 1e6)
+                .tag("partition", partition).tag("window", "long")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("movies.limiter.rejected")
+                .tag("partition", partition)
+                .description("Requests shed because the partition was at its limit")
+                .register(meterRegistry);
+    }
+
+    /** Takes a permit, or returns false right away when {@link #limit()} requests are already in flight. */
+    public boolean tryAcquire() {
+        int limit = limit();
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                rejected.increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /** Returns the permit taken at {@code startNanos} and feeds the elapsed time into the limit. */
+    public void release(long startNanos) {
+        long now = System.nanoTime();
+        int current = inFlight.getAndDecrement();
+        sample(now - startNanos, current, now);
+    }
+
+    public int limit() {
+        return (int) limit;
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    synchronized void sample(long rttNanos, int inFlightAtEnd, long nowNanos) {
+        windowSum += rttNanos;
+        windowCount++;
+        windowMaxInFlight = Math.max(windowMaxInFlight, inFlightAtEnd);
+        if (nowNanos - windowStart < WINDOW_NANOS || windowCount < MIN_SAMPLES) {
+            return;
+        }
+        double average = (double) windowSum / windowCount;
+        boolean saturated = windowMaxInFlight >= limit / 2;
+        windowStart = nowNanos;
+        windowSum = 0;
+        windowCount = 0;
+        windowMaxInFlight = 0;
+
+        shortRtt = average;
+        if (longRtt == 0) {
+            longRtt = average;
+        } else {
+            longRtt += (average - longRtt) * LONG_RTT_ALPHA;
+            // Latency fell well below the long-term average: forget the slow period sooner
+            if (longRtt > 2 * average) {
+                longRtt *= 0.95;
+            }
+        }
+        if (!saturated) {
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, RTT_TOLERANCE * longRtt / average));
+        double target = limit * gradient + Math.sqrt(limit);
+        limit = Math.min(maxLimit, Math.max(minLimit, limit * (1 - SMOOTHING) + target * SMOOTHING));
+    }
+}
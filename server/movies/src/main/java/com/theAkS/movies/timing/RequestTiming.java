@@ -0,0 +1,103 @@
+package com.theAkS.movies.timing;
+
+import java.util.function.Supplier;
+
+/**
+ * Span hooks for the per-request latency breakdown reported by {@link ServerTimingFilter}.
+ * <pre>
+ * long start = RequestTiming.begin();
+ * ...
+ * RequestTiming.end("mongo", start);
+ * </pre>
+ * Spans with the same name add up (and are counted), so hooks can sit in code that runs many times
+ * per request. Outside a timed request, or on another thread, both calls do nothing. A hook costs
+ * two nanoTime reads and a ThreadLocal lookup and allocates nothing.
+ */
+public final class RequestTiming {
+
+    private static final ThreadLocal<Recorder> CURRENT = new ThreadLocal<>();
+
+    private RequestTiming() {
+    }
+
+    /** Start time for {@link #end}; 0 when the current thread is not timing a request. */
+    public static long begin() {
+        return CURRENT.get() == null ? 0 : System.nanoTime();
+    }
+
+    public static void end(String span, long start) {
+        if (start == 0) {
+            return;
+        }
+        Recorder recorder = CURRENT.get();
+        if (recorder != null) {
+            recorder.add(span, System.nanoTime() - start);
+        }
+    }
+
+    public static <T> T time(String span, Supplier<T> work) {
+        long start = begin();
+        try {
+            return work.get();
+        } finally {
+            end(span, start);
+        }
+    }
+
+    /** Adds a span measured elsewhere, e.g. on a worker thread, to the current request. */
+    public static void add(String span, long nanos) {
+        Recorder recorder = CURRENT.get();
+        if (recorder != null) {
+            recorder.add(span, nanos);
+        }
+    }
+
+    static Recorder current() {
+        return CURRENT.get();
+    }
+
+    static Recorder open() {
+        Recorder recorder = new Recorder(System.nanoTime());
+        CURRENT.set(recorder);
+        return recorder;
+    }
+
+    static void close() {
+        CURRENT.remove();
+    }
+
+    /** Spans of one request, in the order they first appeared. Fixed size; further names are dropped. */
+    static final class Recorder {
+        static final int MAX_SPANS = 16;
+
+        final long startNanos;
+        final String[] names = new String[MAX_SPANS];
+        final long[] nanos = new long[MAX_SPANS];
+        final int[] counts = new int[MAX_SPANS];
+        int size;
+        int recorded;
+        long serializeStart; // set when the response body is handed to a message converter
+
+        Recorder(long startNanos) {
+            this.startNanos = startNanos;
+        }
+
+        void add(String span, long duration) {
+            recorded++;
+            for (int i = 0; i < size; i++) {
+                // Span names are constants, so the identity check almost always decides
+                if (names[i] == span || names[i].equals(span)) {
+                    nanos[i] += duration;
+                    counts[i]++;
+                    return;
+                }
+            }
+            if (size < MAX_SPANS) {
+                names[size] = span;
+                nanos[size] = duration;
+                counts[size] = 1;
+                size++;
+            }
+        }
+    }
+}
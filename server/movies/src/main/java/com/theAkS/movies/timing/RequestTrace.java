@@ -0,0 +1,12 @@
+package com.theAkS.movies.timing;
+
+import java.time.Instant;
+import java.util.List;
+
+/** One sampled request as kept by {@link RequestTraceStore}. Durations are in milliseconds. */
+public record RequestTrace(Instant timestamp, String method, String path, int status, double totalMs,
+                           boolean slow, List<Span> spans) {
+
+    public record Span(String name, double durationMs, int count) {
+    }
+}
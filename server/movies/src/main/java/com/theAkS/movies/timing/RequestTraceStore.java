@@ -0,0 +1,58 @@
+package com.theAkS.movies.timing;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Fixed-size ring of recent request traces behind /actuator/requesttraces. A request is kept when it
+ * is slower than {@code slow-ms} or wins the {@code sample-rate} draw; the oldest trace is
+ * overwritten, so memory stays at {@code capacity} traces whatever the traffic.
+ */
+@Component
+public class RequestTraceStore {
+
+    private final AtomicReferenceArray<RequestTrace> ring;
+    private final AtomicLong next = new AtomicLong();
+    private final double sampleRate;
+    private final long slowNanos;
+
+    public RequestTraceStore(@Value("${movies.timing.trace.capacity:200}") int capacity,
+                             @Value("${movies.timing.trace.sample-rate:0.01}") double sampleRate,
+                             @Value("${movies.timing.trace.slow-ms:500}") long slowMs) {
+        this.ring = new AtomicReferenceArray<>(Math.max(1, capacity));
+        this.sampleRate = sampleRate;
+        this.slowNanos = slowMs * 1_000_000;
+    }
+
+    /** Decided before the trace object is built, so unsampled requests cost nothing more. */
+    public boolean shouldKeep(long totalNanos) {
+        return totalNanos >= slowNanos || ThreadLocalRandom.current().nextDouble() < sampleRate;
+    }
+
+    public boolean isSlow(long totalNanos) {
+        return totalNanos >= slowNanos;
+    }
+
+    public void add(RequestTrace trace) {
+        ring.set((int) (next.getAndIncrement() % ring.length()), trace);
+    }
+
+    /** Newest first. */
+    public List<RequestTrace> recent(int limit) {
+        long last = next.get();
+        List<RequestTrace> traces = new ArrayList<>(Math.min(limit, ring.length()));
+        for (long i = last - 1; i >= 0 && i >= last - ring.length() && traces.size() < limit; i--) {
+            RequestTrace trace = ring.get((int) (i % ring.length()));
+            if (trace != null) {
+                traces.add(trace);
+            }
+        }
+        return traces;
+    }
+}
@@ -0,0 +1,23 @@
+package com.theAkS.movies.timing;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/** GET /actuator/requesttraces?limit=50: the sampled and slow requests with their span breakdown. */
+@Component
+@Endpoint(id = "requesttraces")
+@RequiredArgsConstructor
+public class RequestTracesEndpoint {
+
+    private final RequestTraceStore store;
+
+    @ReadOperation
+    public List<RequestTrace> traces(@Nullable Integer limit) {
+        return store.recent(limit == null ? 50 : Math.max(1, limit));
+    }
+}
@@ -0,0 +1,281 @@
+package com.theAkS.movies.timing;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every request and reports the spans recorded through {@link RequestTiming} in a
+ * {@code Server-Timing} header, e.g. {@code auth.jwt;dur=0.210, mongo;desc="2 calls";dur=4.800,
+ * dto;dur=0.310, serialize;dur=1.050, total;dur=7.400}. Runs before Spring Security so the JWT
+ * and user-load spans are included.
+ * <p>
+ * The header is added when the response is about to be committed, which for bodies that fit in
+ * the response buffer is after JSON serialization; larger bodies report serialization up to the
+ * first buffer flush. Sampled and slow requests are kept in {@link RequestTraceStore}.
+ * <p>
+ * The filter's own cost (bookkeeping, header formatting, trace capture, plus the hooks at their
+ * cost measured once the application is ready) is recorded in {@code movies.timing.overhead}.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@Slf4j
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "Server-Timing";
+
+    private final RequestTraceStore traceStore;
+    private final boolean enabled;
+    private final boolean headerEnabled;
+    private final Timer overhead;
+    // Zero until the calibration thread has measured it
+    private volatile long hookNanos;
+
+    public ServerTimingFilter(RequestTraceStore traceStore,
+                              MeterRegistry meterRegistry,
+                              @Value("${movies.timing.enabled:true}") boolean enabled,
+                              @Value("${movies.timing.server-timing-header:true}") boolean headerEnabled) {
+        this.traceStore = traceStore;
+        this.enabled = enabled;
+        this.headerEnabled = headerEnabled;
+        this.overhead = Timer.builder("movies.timing.overhead")
+                .description("Time the request timing instrumentation itself adds to a request")
+                .register(meterRegistry);
+    }
+
+    // The calibration loop takes a noticeable slice of a cold JVM; keep it off the startup thread
+    @EventListener(ApplicationReadyEvent.class)
+    public void calibrate() {
+        if (!enabled) {
+            return;
+        }
+        Thread thread = new Thread(() -> hookNanos = measureHookCost(), "timing-calibration");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        if (!enabled) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        long setupStart = System.nanoTime();
+        RequestTiming.Recorder recorder = RequestTiming.open();
+        TimingResponse timed = new TimingResponse(response, recorder);
+        long setupNanos = System.nanoTime() - setupStart;
+        try {
+            filterChain.doFilter(request, timed);
+        } finally {
+            long end = System.nanoTime();
+            timed.writeHeader();
+            long total = end - recorder.startNanos;
+            if (traceStore.shouldKeep(total)) {
+                traceStore.add(trace(request, response.getStatus(), total, recorder));
+            }
+            RequestTiming.close();
+            overhead.record(setupNanos + timed.headerNanos + (System.nanoTime() - end) + recorder.recorded * hookNanos,
+                    TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private RequestTrace trace(HttpServletRequest request, int status, long totalNanos, RequestTiming.Recorder recorder) {
+        List<RequestTrace.Span> spans = new ArrayList<>(recorder.size);
+        for (int i = 0; i < recorder.size; i++) {
+            spans.add(new RequestTrace.Span(recorder.names[i], recorder.nanos[i] / 1e6, recorder.counts[i]));
+        }
+        return new RequestTrace(Instant.now(), request.getMethod(), request.getRequestURI(), status,
+                totalNanos / 1e6, traceStore.isSlow(totalNanos), spans);
+    }
+
+    String headerValue(RequestTiming.Recorder recorder, long totalNanos) {
+        StringBuilder header = new StringBuilder(32 + recorder.size * 24);
+        for (int i = 0; i < recorder.size; i++) {
+            header.append(recorder.names[i]);
+            if (recorder.counts[i] > 1) {
+                header.append(";desc=\"").append(recorder.counts[i]).append(" calls\"");
+            }
+            appendDuration(header, recorder.nanos[i]).append(", ");
+        }
+        return appendDuration(header.append("total"), totalNanos).toString();
+    }
+
+    // ";dur=" in milliseconds with microsecond precision, without String.format
+    private static StringBuilder appendDuration(StringBuilder header, long nanos) {
+        long micros = nanos / 1000;
+        long fraction = micros % 1000;
+        header.append(";dur=").append(micros / 1000).append('.');
+        if (fraction < 100) {
+            header.append('0');
+        }
+        if (fraction < 10) {
+            header.append('0');
+        }
+        return header.append(fraction);
+    }
+
+    // Average cost of one begin/end pair on a timed request, after a short warm-up
+    private static long measureHookCost() {
+        RequestTiming.open();
+        try {
+            int iterations = 200_000;
+            for (int i = 0; i < iterations; i++) {
+                RequestTiming.end("calibration", RequestTiming.begin());
+            }
+            long start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                RequestTiming.end("calibration", RequestTiming.begin());
+            }
+            long perHook = (System.nanoTime() - start) / iterations;
+            log.debug("Request timing hook cost: {} ns", perHook);
+            return perHook;
+        } finally {
+            RequestTiming.close();
+        }
+    }
+
+    /** Adds the Server-Timing header right before the response commits. */
+    private final class TimingResponse extends HttpServletResponseWrapper {
+        private final RequestTiming.Recorder recorder;
+        private ServletOutputStream outputStream;
+        private boolean headerWritten;
+        private long headerNanos;
+
+        TimingResponse(HttpServletResponse response, RequestTiming.Recorder recorder) {
+            super(response);
+            this.recorder = recorder;
+        }
+
+        void writeHeader() {
+            if (headerWritten) {
+                return;
+            }
+            headerWritten = true;
+            long now = System.nanoTime();
+            if (recorder.serializeStart != 0) {
+                recorder.add("serialize", now - recorder.serializeStart);
+                recorder.serializeStart = 0;
+            }
+            if (headerEnabled && !isCommitted()) {
+                setHeader(HEADER, headerValue(recorder, now - recorder.startNanos));
+            }
+            headerNanos = System.nanoTime() - now;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (outputStream == null) {
+                outputStream = new TimingOutputStream(super.getOutputStream(), this);
+            }
+            return outputStream;
+        }
+
+        // Writers are only used for error pages and plain text; no serialize span for those
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            writeHeader();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            writeHeader();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int status, String message) throws IOException {
+            writeHeader();
+            super.sendError(status, message);
+        }
+
+        @Override
+        public void sendError(int status) throws IOException {
+            writeHeader();
+            super.sendError(status);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            writeHeader();
+            super.sendRedirect(location);
+        }
+    }
+
+    /** Writes through; adds the header before the first flush or before the buffer would overflow. */
+    private static final class TimingOutputStream extends ServletOutputStream {
+        private final ServletOutputStream delegate;
+        private final TimingResponse response;
+        private long written;
+
+        TimingOutputStream(ServletOutputStream delegate, TimingResponse response) {
+            this.delegate = delegate;
+            this.response = response;
+        }
+
+        private void beforeWrite(int length) {
+            if (!response.headerWritten) {
+                written += length;
+                if (written > response.getBufferSize()) {
+                    response.writeHeader();
+                }
+            }
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            beforeWrite(1);
+            delegate.write(b);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            beforeWrite(length);
+            delegate.write(bytes, offset, length);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            response.writeHeader();
+            delegate.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            response.writeHeader();
+            delegate.close();
+        }
+
+        @Override
+        public boolean isReady() {
+            return delegate.isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            delegate.setWriteListener(writeListener);
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.theAkS.movies.user;
+
+/**
+ * One row of {@link UserRepository#findCredentialRowsByUsername}: what authentication needs plus
+ * one role name. Folded into a {@link UserDetailsServiceImpl.UserPrincipal}.
+ */
+public record UserCredentialRow(Long id, String username, String email, String password, Boolean isActive,
+                                Role.RoleName role) {
+}
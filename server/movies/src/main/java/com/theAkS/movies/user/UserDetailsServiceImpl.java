@@ -1,6 +1,7 @@
 package com.theAkS.movies.user;
 
 import com.theAkS.movies.exception.ResourceNotFoundException;
+import com.theAkS.movies.support.DependencyGuard;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -12,6 +13,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
@@ -19,20 +21,30 @@ import java.util.stream.Collectors;
 public class UserDetailsServiceImpl implements UserDetailsService {
     
     private final UserRepository userRepository;
+    private final DependencyGuard dependencyGuard;
     
     @Override
-    @Transactional
+    @Transactional(readOnly = true)
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        User user = userRepository.findByUsernameWithRoles(username)
-                .orElseThrow(() -> new UsernameNotFoundException("User Not Found with username: " + username));
+        // Runs for every login and every JWT request: read the columns, not a User with its role graph
+        List<UserCredentialRow> rows = dependencyGuard.postgres(() -> userRepository.findCredentialRowsByUsername(username));
+        if (rows.isEmpty()) {
+            throw new UsernameNotFoundException("User Not Found with username: " + username);
+        }
         
-        return UserPrincipal.create(user);
+        return UserPrincipal.fromRows(rows);
+    }
+
+    // Own short transaction, so callers such as login need not hold a connection around it
+    @Transactional(readOnly = true)
+    public Optional<UserProfile> loadProfile(String username) {
+        return dependencyGuard.postgres(() -> userRepository.findProfileByUsername(username));
     }
 
-    @Transactional
+    @Transactional(readOnly = true)
     public UserDetails loadUserById(Long id) {
         // Corrected the constructor call to match the exception's definition
-        User user = userRepository.findByIdWithRoles(id)
+        User user = dependencyGuard.postgres(() -> userRepository.findByIdWithRoles(id))
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + id));
 
         return UserPrincipal.create(user);
@@ -71,6 +83,23 @@ public class UserDetailsServiceImpl implements UserDetailsService {
             );
         }
         
+        static UserPrincipal fromRows(List<UserCredentialRow> rows) {
+            List<GrantedAuthority> authorities = rows.stream()
+                    .map(row -> new SimpleGrantedAuthority(row.role().name()))
+                    .distinct()
+                    .collect(Collectors.toList());
+            
+            UserCredentialRow first = rows.get(0);
+            return new UserPrincipal(
+                    first.id(),
+                    first.username(),
+                    first.email(),
+                    first.password(),
+                    authorities,
+                    first.isActive()
+            );
+        }
+        
         public Long getId() {
             return id;
         }
@@ -0,0 +1,44 @@
+package com.theAkS.movies.user;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * What the auth endpoints show about a user, read with a constructor projection instead of a
+ * managed {@link User}: no entity hydration, no dirty-checking snapshot and no role graph.
+ */
+public record UserProfile(Long id, String username, String email, String firstName, String lastName,
+                          String avatarUrl, Boolean isActive, Boolean isEmailVerified,
+                          LocalDateTime createdAt, Set<String> roles) {
+
+    /** Same rules as {@link User#getFullName()}. */
+    public String fullName() {
+        if (firstName != null && lastName != null) {
+            return firstName + " " + lastName;
+        } else if (firstName != null) {
+            return firstName;
+        } else if (lastName != null) {
+            return lastName;
+        }
+        return username;
+    }
+
+    static Optional<UserProfile> fromRows(List<UserProfileRow> rows) {
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+        Set<String> roles = new HashSet<>();
+        for (UserProfileRow row : rows) {
+            if (row.role() != null) {
+                roles.add(row.role().name());
+            }
+        }
+        UserProfileRow first = rows.get(0);
+        return Optional.of(new UserProfile(first.id(), first.username(), first.email(), first.firstName(),
+                first.lastName(), first.avatarUrl(), first.isActive(), first.isEmailVerified(), first.createdAt(),
+                Set.copyOf(roles)));
+    }
+}
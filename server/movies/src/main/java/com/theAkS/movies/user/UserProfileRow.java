@@ -0,0 +1,12 @@
+package com.theAkS.movies.user;
+
+import java.time.LocalDateTime;
+
+/**
+ * One row of {@link UserRepository#findProfileRowsByUsername}: the profile columns plus one role
+ * name (null for a user without roles). Folded into a {@link UserProfile}.
+ */
+public record UserProfileRow(Long id, String username, String email, String firstName, String lastName,
+                             String avatarUrl, Boolean isActive, Boolean isEmailVerified,
+                             LocalDateTime createdAt, Role.RoleName role) {
+}
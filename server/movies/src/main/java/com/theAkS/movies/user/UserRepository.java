@@ -5,6 +5,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -26,4 +27,19 @@ public interface UserRepository extends JpaRepository<User, Long> {
     
     @Query("SELECT u FROM User u JOIN FETCH u.roles WHERE u.id = :id")
     Optional<User> findByIdWithRoles(@Param("id") Long id);
+    
+    // One row per role; inner join, so like findByUsernameWithRoles a user without roles is not found
+    @Query("SELECT new com.theAkS.movies.user.UserCredentialRow(u.id, u.username, u.email, u.password, u.isActive, r.name) "
+            + "FROM User u JOIN u.roles r WHERE u.username = :username")
+    List<UserCredentialRow> findCredentialRowsByUsername(@Param("username") String username);
+    
+    // One row per role; call from a readOnly transaction
+    @Query("SELECT new com.theAkS.movies.user.UserProfileRow(u.id, u.username, u.email, u.firstName, u.lastName, "
+            + "u.avatarUrl, u.isActive, u.isEmailVerified, u.createdAt, r.name) "
+            + "FROM User u LEFT JOIN u.roles r WHERE u.username = :username")
+    List<UserProfileRow> findProfileRowsByUsername(@Param("username") String username);
+    
+    default Optional<UserProfile> findProfileByUsername(String username) {
+        return UserProfile.fromRows(findProfileRowsByUsername(username));
+    }
 }
@@ -0,0 +1,109 @@
+package com.theAkS.movies.auth;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class JwtUtilsTest {
+
+    private static final String SECRET = "test-secret-of-at-least-32-bytes-for-hs256";
+    private static final Base64.Encoder BASE64URL = Base64.getUrlEncoder().withoutPadding();
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final JwtUtils jwtUtils = jwtUtils(SECRET, 60_000);
+
+    @Test
+    void validTokenReturnsItsSubject() {
+        String token = jwtUtils.generateTokenFromUsername("alice");
+
+        assertEquals("alice", jwtUtils.verifiedSubject(token));
+        assertEquals(0, rejected("malformed") + rejected("signature") + rejected("expired") + rejected("invalid"));
+    }
+
+    @Test
+    void tamperedTokensFailTheSignatureCheck() {
+        String[] parts = jwtUtils.generateTokenFromUsername("alice").split("\\.");
+
+        // Payload changed after signing: the subject is now someone else
+        String payload = BASE64URL.encodeToString("{\"sub\":\"admin\",\"exp\":4102444800}".getBytes(StandardCharsets.UTF_8));
+        assertNull(jwtUtils.verifiedSubject(parts[0] + "." + payload + "." + parts[2]));
+
+        // One signature character flipped
+        char[] signature = parts[2].toCharArray();
+        signature[10] = signature[10] == 'A' ? 'B' : 'A';
+        assertNull(jwtUtils.verifiedSubject(parts[0] + "." + parts[1] + "." + new String(signature)));
+
+        // Signed with a key that is not ours
+        String foreign = jwtUtils("another-secret-of-at-least-32-bytes-long", 60_000).generateTokenFromUsername("alice");
+        assertNull(jwtUtils.verifiedSubject(foreign));
+
+        assertEquals(3, rejected("signature"));
+        assertEquals(0, rejected("malformed"));
+    }
+
+    @Test
+    void unsignedTokenIsMalformed() {
+        String header = BASE64URL.encodeToString("{\"alg\":\"none\"}".getBytes(StandardCharsets.UTF_8));
+        String payload = jwtUtils.generateTokenFromUsername("alice").split("\\.")[1];
+
+        assertNull(jwtUtils.verifiedSubject(header + "." + payload + "."));
+        assertEquals(1, rejected("malformed"));
+        assertEquals(0, rejected("signature"));
+    }
+
+    @Test
+    void expiredTokenIsRejected() {
+        String token = jwtUtils(SECRET, -60_000).generateTokenFromUsername("alice");
+
+        assertNull(jwtUtils.verifiedSubject(token));
+        assertEquals(1, rejected("expired"));
+    }
+
+    @Test
+    void malformedInputIsRejected() {
+        String[] parts = jwtUtils.generateTokenFromUsername("alice").split("\\.");
+
+        assertNull(jwtUtils.verifiedSubject(parts[0] + "." + parts[1]));
+        assertNull(jwtUtils.verifiedSubject(parts[0] + "." + parts[1] + "." + parts[2] + "." + parts[2]));
+        assertNull(jwtUtils.verifiedSubject(parts[0] + ".." + parts[2]));
+        assertNull(jwtUtils.verifiedSubject(parts[0] + "." + parts[1] + "+/=." + parts[2]));
+        assertNull(jwtUtils.verifiedSubject(parts[0] + "." + "A".repeat(4096) + "." + parts[2]));
+        assertNull(jwtUtils.verifiedSubject(""));
+
+        assertEquals(6, rejected("malformed"));
+        assertEquals(0, rejected("signature"));
+    }
+
+    @Test
+    void signedTokenTheLibraryCannotParseIsInvalid() throws Exception {
+        String header = BASE64URL.encodeToString("{\"alg\":\"HS256\"}".getBytes(StandardCharsets.UTF_8));
+        String payload = BASE64URL.encodeToString("not json".getBytes(StandardCharsets.UTF_8));
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        String signature = BASE64URL.encodeToString(mac.doFinal((header + "." + payload).getBytes(StandardCharsets.US_ASCII)));
+
+        assertNull(jwtUtils.verifiedSubject(header + "." + payload + "." + signature));
+        assertEquals(1, rejected("invalid"));
+    }
+
+    private JwtUtils jwtUtils(String secret, int expirationMs) {
+        JwtUtils utils = new JwtUtils(new ObjectMapper(), registry);
+        ReflectionTestUtils.setField(utils, "jwtSecret", secret);
+        ReflectionTestUtils.setField(utils, "jwtExpirationMs", expirationMs);
+        utils.init();
+        return utils;
+    }
+
+    private double rejected(String reason) {
+        return registry.get("movies.auth.token.rejected").tag("reason", reason).counter().count();
+    }
+}
@@ -0,0 +1,71 @@
+package com.theAkS.movies.config;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ReadWriteRoutingDataSourceTest {
+
+    @Test
+    void readOnlyTransactionsUseTheReplica() {
+        DataSource primary = database("primary");
+        DataSource replica = database("replica");
+        DataSource routing = new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(primary, replica));
+        JdbcTemplate jdbc = new JdbcTemplate(routing);
+        TransactionTemplate tx = new TransactionTemplate(new DataSourceTransactionManager(routing));
+
+        assertEquals("primary", tx.execute(status -> jdbc.queryForObject("SELECT name FROM node", String.class)));
+
+        tx.setReadOnly(true);
+        assertEquals("replica", tx.execute(status -> jdbc.queryForObject("SELECT name FROM node", String.class)));
+    }
+
+    // The transaction manager JpaConfig actually uses: Hibernate must not fetch the connection before the flag is set
+    @Test
+    void readOnlyJpaTransactionsUseTheReplica() {
+        DataSource routing = new LazyConnectionDataSourceProxy(
+                new ReadWriteRoutingDataSource(database("jpa-primary"), database("jpa-replica")));
+        LocalContainerEntityManagerFactoryBean factoryBean = new LocalContainerEntityManagerFactoryBean();
+        factoryBean.setDataSource(routing);
+        factoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factoryBean.setPackagesToScan("com.theAkS.movies.config");
+        factoryBean.setPersistenceUnitName("routing-test");
+        factoryBean.afterPropertiesSet();
+        EntityManagerFactory factory = factoryBean.getObject();
+        try {
+            EntityManager entityManager = SharedEntityManagerCreator.createSharedEntityManager(factory);
+            TransactionTemplate tx = new TransactionTemplate(new JpaTransactionManager(factory));
+
+            assertEquals("jpa-primary", tx.execute(status ->
+                    entityManager.createNativeQuery("SELECT name FROM node").getSingleResult()));
+
+            tx.setReadOnly(true);
+            assertEquals("jpa-replica", tx.execute(status ->
+                    entityManager.createNativeQuery("SELECT name FROM node").getSingleResult()));
+        } finally {
+            factoryBean.destroy();
+        }
+    }
+
+    private static DataSource database(String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE IF NOT EXISTS node (name VARCHAR(20))");
+        jdbc.update("DELETE FROM node");
+        jdbc.update("INSERT INTO node VALUES (?)", name);
+        return dataSource;
+    }
+}
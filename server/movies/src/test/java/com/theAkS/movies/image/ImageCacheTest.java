@@ -0,0 +1,127 @@
+package com.theAkS.movies.image;
+
+import com.theAkS.movies.image.ImageCache.CachedImage;
+import com.theAkS.movies.image.ImageCache.ImageUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ImageCacheTest {
+
+    private static final String A = "https://image.tmdb.org/t/p/w500/a.jpg";
+    private static final String B = "https://image.tmdb.org/t/p/w500/b.jpg";
+    private static final String C = "https://image.tmdb.org/t/p/w500/c.jpg";
+
+    @TempDir
+    Path directory;
+
+    // Every URL is a 100 byte PNG
+    private final List<String> fetched = new ArrayList<>();
+    private final ImageUpstream upstream = (url, target, maxBytes) -> {
+        fetched.add(url.toString());
+        Files.write(target, new byte[100]);
+        return "image/png";
+    };
+
+    @Test
+    void evictsTheLeastRecentlyServedImage() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ImageCache cache = new ImageCache(upstream, registry, directory, 250, 1000, 1000);
+
+        CachedImage a = cache.get(A);
+        cache.get(B);
+        assertEquals(a, cache.get(A));
+        cache.get(C);
+
+        // B was served least recently, so it made room for C
+        assertEquals(List.of(A, B, C), fetched);
+        cache.get(A);
+        cache.get(C);
+        assertEquals(3, fetched.size());
+        cache.get(B);
+        assertEquals(List.of(A, B, C, B), fetched);
+
+        assertEquals(200, registry.get("movies.images.cache.bytes").gauge().value());
+        assertEquals(2, registry.get("movies.images.evictions").counter().count());
+        assertEquals(3, registry.get("movies.images.cache").tag("result", "hit").counter().count());
+        assertEquals(4, registry.get("movies.images.cache").tag("result", "miss").counter().count());
+        assertEquals("image/png", a.contentType());
+        assertEquals(100, a.size());
+    }
+
+    @Test
+    void evictedFilesAreRetiredThenDroppedOnRestart() throws IOException {
+        ImageCache cache = new ImageCache(upstream, new SimpleMeterRegistry(), directory, 150, 1000, 1000);
+        CachedImage a = cache.get(A);
+        cache.get(B);
+
+        // A response may still be sending it: kept on disk, marked with a zero modification time
+        assertTrue(Files.exists(a.path()));
+        assertEquals(FileTime.fromMillis(0), Files.getLastModifiedTime(a.path()));
+        cache.deleteEvicted();
+        assertTrue(Files.exists(a.path()));
+
+        new ImageCache(upstream, new SimpleMeterRegistry(), directory, 150, 1000, 1000);
+        assertFalse(Files.exists(a.path()));
+        assertEquals(1, files().size());
+    }
+
+    @Test
+    void rebuildsTheIndexFromDiskInLeastRecentlyUsedOrder() throws IOException {
+        ImageCache cache = new ImageCache(upstream, new SimpleMeterRegistry(), directory, 1000, 1000, 1000);
+        CachedImage a = cache.get(A);
+        CachedImage b = cache.get(B);
+        CachedImage c = cache.get(C);
+        long now = System.currentTimeMillis();
+        Files.setLastModifiedTime(b.path(), FileTime.fromMillis(now - 30_000));
+        Files.setLastModifiedTime(c.path(), FileTime.fromMillis(now - 20_000));
+        Files.setLastModifiedTime(a.path(), FileTime.fromMillis(now - 10_000));
+        // An unfinished download and a file that is not ours
+        Files.write(directory.resolve(a.path().getFileName() + ".tmp-1f"), new byte[10]);
+        Files.write(directory.resolve("notes.txt"), new byte[10]);
+
+        // Smaller limit after the restart: the oldest image, B, does not fit
+        ImageCache restarted = new ImageCache(upstream, new SimpleMeterRegistry(), directory, 250, 1000, 1000);
+        assertEquals(a, restarted.get(A));
+        assertEquals(c, restarted.get(C));
+        assertEquals(3, fetched.size());
+        CachedImage refetched = restarted.get(B);
+        assertEquals(4, fetched.size());
+        assertNotEquals(b.path(), refetched.path());
+        // Trimmed while loading, so there is no response to wait for: deleted right away
+        assertFalse(Files.exists(b.path()));
+        assertEquals(Stream.of(a.path(), c.path(), refetched.path()).sorted().toList(), files());
+    }
+
+    @Test
+    void rejectsUnsupportedTypesAndLeavesNoTemporaryFile() throws IOException {
+        ImageUpstream svg = (url, target, maxBytes) -> {
+            Files.writeString(target, "<svg/>");
+            return "image/svg+xml; charset=utf-8";
+        };
+        ImageCache cache = new ImageCache(svg, new SimpleMeterRegistry(), directory, 1000, 1000, 1000);
+
+        assertThrows(ImageUnavailableException.class, () -> cache.get(A));
+        assertEquals(List.of(), files());
+    }
+
+    private List<Path> files() throws IOException {
+        try (Stream<Path> listing = Files.list(directory)) {
+            return listing.map(Path::toAbsolutePath).sorted().toList();
+        }
+    }
+}
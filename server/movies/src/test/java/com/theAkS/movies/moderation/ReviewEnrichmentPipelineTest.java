@@ -0,0 +1,188 @@
+package com.theAkS.movies.moderation;
+
+import com.theAkS.movies.review.Review;
+import com.theAkS.movies.support.DependencyGuard;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+class ReviewEnrichmentPipelineTest {
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final List<ReviewEnrichmentPipeline> pipelines = new ArrayList<>();
+
+    @AfterEach
+    void stopPipelines() {
+        pipelines.forEach(ReviewEnrichmentPipeline::stop);
+    }
+
+    @Test
+    void failedStageIsRetriedInPlace() {
+        AtomicInteger attempts = new AtomicInteger();
+        ReviewEnrichmentPipeline pipeline = pipeline(10, 3, stage("flaky", enrichment -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new IllegalStateException("sentiment service timed out");
+            }
+            enrichment.setSentiment(0.5);
+        }));
+
+        assertTrue(pipeline.submit("tt1", review()));
+
+        ArgumentCaptor<ReviewEnrichment> stored = ArgumentCaptor.forClass(ReviewEnrichment.class);
+        verify(mongoTemplate, timeout(5000)).save(stored.capture());
+        assertEquals(0.5, stored.getValue().getSentiment());
+        assertEquals(3, attempts.get());
+        assertEquals(2, counter("movies.enrichment.retries", "flaky"));
+        assertEquals(1, counter("movies.enrichment.processed", "flaky"));
+        verify(mongoTemplate, never()).insert(any(EnrichmentDeadLetter.class));
+    }
+
+    @Test
+    void stageFailingEveryAttemptIsDeadLettered() {
+        ReviewEnrichmentPipeline pipeline = pipeline(10, 3, stage("broken", enrichment -> {
+            throw new IllegalStateException("model not loaded");
+        }));
+        Review review = review();
+
+        assertTrue(pipeline.submit("tt1", review));
+
+        ArgumentCaptor<EnrichmentDeadLetter> deadLetter = ArgumentCaptor.forClass(EnrichmentDeadLetter.class);
+        verify(mongoTemplate, timeout(5000)).insert(deadLetter.capture());
+        assertEquals(review.getId(), deadLetter.getValue().getReviewId());
+        assertEquals(42L, deadLetter.getValue().getAuthorId());
+        assertEquals("broken", deadLetter.getValue().getStage());
+        assertEquals("model not loaded", deadLetter.getValue().getError());
+        assertEquals(3, deadLetter.getValue().getAttempts());
+        assertEquals(1, counter("movies.enrichment.dead_letters", "broken"));
+        assertEquals(3, counter("movies.enrichment.failures", "broken"));
+        // A dead-lettered review goes no further
+        verify(mongoTemplate, never()).save(any(ReviewEnrichment.class));
+    }
+
+    @Test
+    void slowStageBacksUpTheQueuesThenSubmitsAreRejected() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ReviewEnrichmentPipeline pipeline = pipeline(1, 3,
+                stage("fast", enrichment -> {
+                }),
+                stage("slow", enrichment -> {
+                    entered.countDown();
+                    release.await();
+                }));
+
+        // Held by the slow worker, then one in each queue and one in the fast worker's blocked put
+        assertTrue(pipeline.submit("tt1", review()));
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+        assertTrue(pipeline.submit("tt1", review()));
+        eventually(() -> gauge("slow") == 1);
+        assertTrue(pipeline.submit("tt1", review()));
+        eventually(() -> counter("movies.enrichment.processed", "fast") == 3);
+        assertTrue(pipeline.submit("tt1", review()));
+
+        assertFalse(pipeline.submit("tt1", review()));
+        assertEquals(1, registry.get("movies.enrichment.rejected").counter().count());
+        assertEquals(1, gauge("fast"));
+
+        release.countDown();
+        verify(mongoTemplate, timeout(5000).times(4)).save(any(ReviewEnrichment.class));
+        assertTrue(pipeline.submit("tt1", review()));
+    }
+
+    @Test
+    void workersRunOnlyBetweenStartAndStop() {
+        AtomicReference<Thread> worker = new AtomicReference<>();
+        ReviewEnrichmentPipeline pipeline = pipeline(10, 3, false,
+                stage("noop", enrichment -> worker.set(Thread.currentThread())));
+
+        // Accepted before start, processed once the context starts the pipeline
+        assertTrue(pipeline.submit("tt1", review()));
+        assertFalse(pipeline.isRunning());
+        verify(mongoTemplate, timeout(200).times(0)).save(any(ReviewEnrichment.class));
+
+        pipeline.start();
+        assertTrue(pipeline.isRunning());
+        verify(mongoTemplate, timeout(5000)).save(any(ReviewEnrichment.class));
+
+        pipeline.stop();
+        assertFalse(pipeline.isRunning());
+        assertFalse(worker.get().isAlive());
+    }
+
+    private ReviewEnrichmentPipeline pipeline(int queueCapacity, int maxAttempts, EnrichmentStage... stages) {
+        return pipeline(queueCapacity, maxAttempts, true, stages);
+    }
+
+    private ReviewEnrichmentPipeline pipeline(int queueCapacity, int maxAttempts, boolean start, EnrichmentStage... stages) {
+        ReviewEnrichmentPipeline pipeline = new ReviewEnrichmentPipeline(List.of(stages), mongoTemplate,
+                new DependencyGuard(BulkheadRegistry.ofDefaults(), CircuitBreakerRegistry.ofDefaults()),
+                registry, new MockEnvironment(), true, queueCapacity, maxAttempts, 1, List.of());
+        pipelines.add(pipeline);
+        if (start) {
+            pipeline.start();
+        }
+        return pipeline;
+    }
+
+    private double counter(String name, String stage) {
+        return registry.get(name).tag("stage", stage).counter().count();
+    }
+
+    private double gauge(String stage) {
+        return registry.get("movies.enrichment.queue.depth").tag("stage", stage).gauge().value();
+    }
+
+    private static Review review() {
+        return Review.builder().id(new ObjectId()).body("A slow burn that pays off.").authorId(42L).build();
+    }
+
+    private static EnrichmentStage stage(String name, Step step) {
+        return new EnrichmentStage() {
+            @Override
+            public String name() {
+                return name;
+            }
+
+            @Override
+            public void process(ReviewEnrichment enrichment) throws Exception {
+                step.run(enrichment);
+            }
+        };
+    }
+
+    private static void eventually(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition not met within 5s");
+            Thread.sleep(5);
+        }
+    }
+
+    private interface Step {
+        void run(ReviewEnrichment enrichment) throws Exception;
+    }
+}
@@ -0,0 +1,160 @@
+package com.theAkS.movies.movie;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.theAkS.movies.review.Review;
+import de.flapdoodle.embed.mongo.commands.MongodArguments;
+import de.flapdoodle.embed.mongo.commands.ServerAddress;
+import de.flapdoodle.embed.mongo.config.Storage;
+import de.flapdoodle.embed.mongo.distribution.Version;
+import de.flapdoodle.embed.mongo.transitions.ImmutableMongod;
+import de.flapdoodle.embed.mongo.transitions.Mongod;
+import de.flapdoodle.embed.mongo.transitions.RunningMongodProcess;
+import de.flapdoodle.embed.process.archives.ExtractedFileSet;
+import de.flapdoodle.embed.process.io.directories.PersistentDir;
+import de.flapdoodle.reverse.TransitionWalker;
+import de.flapdoodle.reverse.transitions.Start;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs against an embedded single-node replica set, since change streams need one. Tagged
+ * {@code replica-set}, which the default build excludes; run it with {@code mvn test -Preplica-set}.
+ * The mongod 7.0 download is cached under {@code -Dmongod.cache-dir} (default {@code ~/.embedmongo});
+ * {@code -Dmongod.binary=/path/to/mongod} uses a local binary instead. Without either the tests fail.
+ */
+@Tag("replica-set")
+class CatalogChangeListenerTest {
+
+    private static TransitionWalker.ReachedState<RunningMongodProcess> mongod;
+    private static MongoClient client;
+
+    private MongoTemplate mongoTemplate;
+    private MovieService movieService;
+    private MovieBrowseCache movieBrowseCache;
+    private TitleSuggestIndex titleSuggestIndex;
+    private SimilarMoviesIndex similarMoviesIndex;
+    private CatalogChangeListener listener;
+
+    @BeforeAll
+    static void startReplicaSet() throws InterruptedException {
+        mongod = mongod().start(Version.Main.V7_0);
+        ServerAddress address = mongod.current().getServerAddress();
+        String host = address.getHost() + ":" + address.getPort();
+        client = MongoClients.create("mongodb://" + host + "/?directConnection=true");
+        client.getDatabase("admin").runCommand(new Document("replSetInitiate", new Document("_id", "rs0")
+                .append("members", List.of(new Document("_id", 0).append("host", host)))));
+        for (int i = 0; i < 100; i++) {
+            if (Boolean.TRUE.equals(client.getDatabase("admin").runCommand(new Document("hello", 1)).getBoolean("isWritablePrimary"))) {
+                return;
+            }
+            Thread.sleep(100);
+        }
+        throw new IllegalStateException("Replica set did not elect a primary");
+    }
+
+    private static ImmutableMongod mongod() {
+        ImmutableMongod mongod = Mongod.instance()
+                .withMongodArguments(Start.to(MongodArguments.class)
+                        .initializedWith(MongodArguments.defaults().withReplication(Storage.of("rs0", 16))));
+        String binary = System.getProperty("mongod.binary", "");
+        if (!binary.isBlank()) {
+            Path executable = Path.of(binary);
+            return mongod.withExtractPackage(Start.to(ExtractedFileSet.class)
+                    .initializedWith(ExtractedFileSet.builder(executable.getParent()).executable(executable).build()));
+        }
+        String cacheDir = System.getProperty("mongod.cache-dir", "");
+        if (!cacheDir.isBlank()) {
+            return mongod.withPersistentBaseDir(Start.to(PersistentDir.class).initializedWith(PersistentDir.of(Path.of(cacheDir))));
+        }
+        return mongod;
+    }
+
+    @AfterAll
+    static void stopReplicaSet() {
+        if (client != null) {
+            client.close();
+        }
+        if (mongod != null) {
+            mongod.close();
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = new MongoTemplate(client, "coherence");
+        mongoTemplate.getDb().drop();
+        movieService = mock(MovieService.class);
+        movieBrowseCache = mock(MovieBrowseCache.class);
+        titleSuggestIndex = mock(TitleSuggestIndex.class);
+        similarMoviesIndex = mock(SimilarMoviesIndex.class);
+        when(movieService.catalogVersion()).thenReturn("v1");
+        listener = new CatalogChangeListener(mongoTemplate, movieService, movieBrowseCache, titleSuggestIndex,
+                similarMoviesIndex, new SimpleMeterRegistry(), true, 0, 200);
+    }
+
+    @AfterEach
+    void tearDown() {
+        listener.stop();
+    }
+
+    @Test
+    void newMovieRebuildsBrowseCacheAndSuggestTrie() throws InterruptedException {
+        startAndAwaitStream();
+
+        mongoTemplate.insert(Movie.builder().imdbID("tt1").title("Alien").build());
+
+        verify(movieBrowseCache, timeout(10_000)).refresh();
+        verify(titleSuggestIndex, timeout(10_000)).rebuild("v1");
+        verify(similarMoviesIndex, never()).rebuild();
+    }
+
+    @Test
+    void reviewOnlyRefreshesBrowseCache() throws InterruptedException {
+        startAndAwaitStream();
+
+        mongoTemplate.insert(Review.builder().id(new ObjectId()).body("Great").imdbId("tt1").build());
+
+        verify(movieBrowseCache, timeout(10_000)).refresh();
+        verify(titleSuggestIndex, never()).rebuild("v1");
+    }
+
+    @Test
+    void restartedStreamSeesWritesMadeWhileStopped() throws InterruptedException {
+        startAndAwaitStream();
+        listener.stop();
+
+        mongoTemplate.insert(Movie.builder().imdbID("tt2").title("Heat").build());
+        listener.start();
+
+        verify(movieBrowseCache, timeout(10_000)).refresh();
+        verify(titleSuggestIndex, timeout(10_000)).rebuild("v1");
+    }
+
+    // Writes made before the stream has opened would not be seen
+    private void startAndAwaitStream() throws InterruptedException {
+        listener.start();
+        for (int i = 0; i < 100 && listener.resumeToken() == null; i++) {
+            Thread.sleep(100);
+        }
+        assertTrue(listener.resumeToken() != null, "change stream did not open");
+    }
+}
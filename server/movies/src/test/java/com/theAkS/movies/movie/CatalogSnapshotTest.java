@@ -0,0 +1,132 @@
+package com.theAkS.movies.movie;
+
+import com.theAkS.movies.support.DependencyGuard;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CatalogSnapshotTest {
+
+    private static final Movie HEAT = Movie.builder()
+            .id(new ObjectId())
+            .imdbID("tt0113277")
+            .title("Heat")
+            .releaseDate("1995-12-15")
+            .trailerLink("https://www.youtube.com/watch?v=0xbBLJ1WGwQ")
+            .poster("https://image.tmdb.org/t/p/w500/heat.jpg")
+            .genres(List.of("Action", "Crime"))
+            .backdrops(List.of("https://image.tmdb.org/t/p/original/heat-1.jpg", "https://image.tmdb.org/t/p/original/heat-2.jpg"))
+            .build();
+    // Multi-byte UTF-8, null strings and no lists
+    private static final Movie AMELIE = Movie.builder()
+            .imdbID("tt0211915")
+            .title("Le Fabuleux Destin d'Amélie Poulain")
+            .genres(List.of("Comédie"))
+            .build();
+    private static final Movie ALIEN = Movie.builder()
+            .id(new ObjectId())
+            .imdbID("tt0078748")
+            .title("Alien")
+            .poster("https://image.tmdb.org/t/p/w500/alien.jpg")
+            .build();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void writtenSnapshotReadsBackInAFreshInstance() {
+        Path path = directory.resolve("catalog.snapshot");
+        // Unsorted, with a duplicate imdbID and one without any
+        snapshot(path, List.of(HEAT, AMELIE, ALIEN, Movie.builder().imdbID("tt0113277").title("Heat (duplicate)").build(),
+                Movie.builder().title("No id").build())).write();
+
+        CatalogSnapshot reloaded = snapshot(path, List.of());
+        assertTrue(reloaded.available());
+        assertEquals(Optional.of(HEAT), reloaded.find("tt0113277"));
+        assertEquals(Optional.of(AMELIE), reloaded.find("tt0211915"));
+        assertEquals(Optional.of(ALIEN), reloaded.find("tt0078748"));
+        assertEquals(Optional.empty(), reloaded.find("tt0000000"));
+        assertEquals(Optional.empty(), reloaded.find("tt99999999"));
+        assertEquals(List.of(ALIEN, HEAT, AMELIE), reloaded.all());
+    }
+
+    @Test
+    void truncatedSnapshotIsIgnored() throws IOException {
+        Path path = directory.resolve("catalog.snapshot");
+        snapshot(path, List.of(HEAT, AMELIE, ALIEN)).write();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+
+        CatalogSnapshot reloaded = snapshot(path, List.of());
+        assertFalse(reloaded.available());
+        assertEquals(Optional.empty(), reloaded.find("tt0113277"));
+        assertEquals(List.of(), reloaded.all());
+    }
+
+    @Test
+    void corruptedSnapshotIsIgnored() throws IOException {
+        Path path = directory.resolve("catalog.snapshot");
+        snapshot(path, List.of(HEAT, AMELIE, ALIEN)).write();
+        byte[] bytes = Files.readAllBytes(path);
+        bytes[bytes.length / 2] ^= 0x20; // one flipped bit inside a record
+        Files.write(path, bytes);
+
+        assertFalse(snapshot(path, List.of()).available());
+    }
+
+    @Test
+    void foreignOrEmptyFileIsIgnored() throws IOException {
+        Path path = directory.resolve("catalog.snapshot");
+        Files.write(path, new byte[0]);
+        assertFalse(snapshot(path, List.of()).available());
+
+        Files.writeString(path, "{\"movies\": []} and then some padding to pass the header");
+        assertFalse(snapshot(path, List.of()).available());
+    }
+
+    @Test
+    void failedRewriteKeepsThePreviousSnapshot() {
+        Path path = directory.resolve("catalog.snapshot");
+        snapshot(path, List.of(HEAT)).write();
+
+        MongoTemplate down = mock(MongoTemplate.class);
+        when(down.find(any(Query.class), eq(Movie.class))).thenThrow(new IllegalStateException("mongo down"));
+        CatalogSnapshot snapshot = new CatalogSnapshot(down, guard(), new SimpleMeterRegistry(), path, true);
+        snapshot.scheduledWrite();
+
+        assertEquals(Optional.of(HEAT), snapshot.find("tt0113277"));
+        assertEquals(Optional.of(HEAT), snapshot(path, List.of()).find("tt0113277"));
+    }
+
+    private static CatalogSnapshot snapshot(Path path, List<Movie> movies) {
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.find(any(Query.class), eq(Movie.class))).thenReturn(movies);
+        return new CatalogSnapshot(mongoTemplate, guard(), new SimpleMeterRegistry(), path, true);
+    }
+
+    private static DependencyGuard guard() {
+        return new DependencyGuard(BulkheadRegistry.ofDefaults(), CircuitBreakerRegistry.ofDefaults());
+    }
+}
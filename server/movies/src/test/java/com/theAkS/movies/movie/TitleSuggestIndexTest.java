@@ -0,0 +1,104 @@
+package com.theAkS.movies.movie;
+
+import com.theAkS.movies.movie.TitleSuggestIndex.Suggestion;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TitleSuggestIndexTest {
+
+    @Test
+    void matchesThePrefixOfAnyWordIgnoringCase() {
+        TitleSuggestIndex index = index(10,
+                movie("tt0133093", "The Matrix", 40),
+                movie("tt0110912", "Pulp Fiction", 30),
+                movie("tt0084787", "The Thing", 20));
+
+        assertEquals(List.of("The Matrix"), titles(index.suggest("mat", 10)));
+        assertEquals(List.of("The Matrix"), titles(index.suggest("MATR", 10)));
+        assertEquals(List.of("The Matrix"), titles(index.suggest("the ma", 10)));
+        assertEquals(List.of("Pulp Fiction"), titles(index.suggest("fic", 10)));
+        // Both words of "The Thing" start with "th"; it is still listed once
+        assertEquals(List.of("The Matrix", "The Thing"), titles(index.suggest("th", 10)));
+        // Only word starts are indexed
+        assertEquals(List.of(), titles(index.suggest("atrix", 10)));
+        assertEquals(List.of(), titles(index.suggest("matrixx", 10)));
+        assertEquals(List.of(), titles(index.suggest("z", 10)));
+        assertEquals("tt0133093", index.suggest("mat", 1).get(0).imdbID());
+    }
+
+    @Test
+    void foldsDiacriticsInTitlesAndPrefixes() {
+        TitleSuggestIndex index = index(10,
+                movie("tt0211915", "Le Fabuleux Destin d'Amélie Poulain", 50),
+                movie("tt0110413", "Léon", 40),
+                movie("tt0245429", "Sen to Chihiro no Kamikakushi", 30),
+                movie("tt0317248", "Cidade de Deus", 20));
+
+        assertEquals(List.of("Le Fabuleux Destin d'Amélie Poulain"), titles(index.suggest("amel", 10)));
+        assertEquals(List.of("Le Fabuleux Destin d'Amélie Poulain"), titles(index.suggest("AMÉL", 10)));
+        assertEquals(List.of("Léon"), titles(index.suggest("leon", 10)));
+        assertEquals(List.of("Léon"), titles(index.suggest("Léo", 10)));
+        // Decomposed input (e + combining acute) folds the same way
+        assertEquals(List.of("Léon"), titles(index.suggest("Le\u0301o", 10)));
+        assertEquals(List.of("Le Fabuleux Destin d'Amélie Poulain", "Léon"), titles(index.suggest("le", 10)));
+        assertEquals("lea amelie", TitleSuggestIndex.fold("Léa AMÉLIE"));
+    }
+
+    @Test
+    void returnsTheTopKByReviewCountThenTitle() {
+        TitleSuggestIndex index = index(3,
+                movie("tt1", "Star Trek", 10),
+                movie("tt2", "Star Wars", 90),
+                movie("tt3", "Stardust", null),
+                movie("tt4", "A Star Is Born", 40),
+                movie("tt5", "Starship Troopers", 40),
+                movie("tt6", "Stalker", 5));
+
+        // Ties on review count are broken by title; the rest do not make the top 3
+        assertEquals(List.of("Star Wars", "A Star Is Born", "Starship Troopers"), titles(index.suggest("star", 10)));
+        assertEquals(List.of("Star Wars", "A Star Is Born"), titles(index.suggest("star", 2)));
+        assertEquals(List.of("Star Wars", "A Star Is Born", "Starship Troopers"), titles(index.suggest("sta", 3)));
+        // Deeper nodes keep their own top K
+        assertEquals(List.of("Stardust"), titles(index.suggest("stard", 10)));
+        assertEquals(List.of("Star Trek"), titles(index.suggest("star t", 10)));
+        assertEquals(List.of("Stalker"), titles(index.suggest("stal", 10)));
+        assertEquals(List.of(), titles(index.suggest("star", 0)));
+        assertEquals(3, index.maxLimit());
+    }
+
+    @Test
+    void failedRebuildKeepsServingThePreviousTrie() {
+        MovieService movieService = mock(MovieService.class);
+        when(movieService.catalogVersion()).thenReturn("v1", "v2");
+        when(movieService.similaritySignals())
+                .thenReturn(List.of(movie("tt0133093", "The Matrix", 40)))
+                .thenThrow(new IllegalStateException("mongo down"));
+        TitleSuggestIndex index = new TitleSuggestIndex(movieService, new SimpleMeterRegistry(), 10, 3_600_000);
+
+        index.scheduledRebuild();
+        index.scheduledRebuild();
+        assertEquals(List.of("The Matrix"), titles(index.suggest("mat", 10)));
+    }
+
+    private static TitleSuggestIndex index(int topK, Movie... movies) {
+        MovieService movieService = mock(MovieService.class);
+        when(movieService.similaritySignals()).thenReturn(List.of(movies));
+        TitleSuggestIndex index = new TitleSuggestIndex(movieService, new SimpleMeterRegistry(), topK, 3_600_000);
+        index.rebuild("v1");
+        return index;
+    }
+
+    private static Movie movie(String imdbId, String title, Integer reviewCount) {
+        return Movie.builder().imdbID(imdbId).title(title).reviewCount(reviewCount).build();
+    }
+
+    private static List<String> titles(List<Suggestion> suggestions) {
+        return suggestions.stream().map(Suggestion::title).toList();
+    }
+}
@@ -0,0 +1,134 @@
+package com.theAkS.movies.movie;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TrendingTrackerTest {
+
+    private static final long MINUTE = 60_000;
+
+    // Start of a bucket whose epoch is a multiple of the ring size (6), so slots line up with minutes
+    private final AtomicLong clock = new AtomicLong(6 * 1000 * MINUTE);
+
+    @Test
+    void windowsSumOnlyTheirOwnBuckets() {
+        TrendingTracker tracker = tracker();
+        for (int i = 0; i < 3; i++) {
+            tracker.recordView("tt1");
+        }
+        tracker.recordReview("tt2");
+        tracker.refresh();
+        assertEquals(List.of("tt2=5", "tt1=3"), ranking(tracker, "2m"));
+
+        clock.addAndGet(MINUTE);
+        for (int i = 0; i < 3; i++) {
+            tracker.recordView("tt1");
+        }
+        tracker.refresh();
+        assertEquals(List.of("tt1=6", "tt2=5"), ranking(tracker, "2m"));
+
+        // The first minute has left the 2 minute window but not the 5 minute one
+        clock.addAndGet(MINUTE);
+        tracker.refresh();
+        assertEquals(List.of("tt1=3"), ranking(tracker, "2m"));
+        assertEquals(List.of("tt1=6", "tt2=5"), ranking(tracker, "5m"));
+        assertEquals(List.of("tt1=6"), ranking(tracker, "5m", 1));
+    }
+
+    @Test
+    void reusedSlotStartsFromZero() {
+        TrendingTracker tracker = tracker();
+        tracker.recordReview("tt1");
+
+        // Six minutes on, the ring wraps to the slot that still holds the first minute
+        clock.addAndGet(6 * MINUTE);
+        tracker.recordView("tt1");
+        tracker.refresh();
+        assertEquals(List.of("tt1=1"), ranking(tracker, "2m"));
+        assertEquals(List.of("tt1=1"), ranking(tracker, "5m"));
+    }
+
+    @Test
+    void concurrentWritersAcrossSlotReuseLoseNothing() throws Exception {
+        TrendingTracker tracker = tracker();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            for (int round = 0; round < 20; round++) {
+                // Each round wraps the ring, so every round starts by replacing a stale bucket
+                clock.addAndGet(6 * MINUTE);
+                List<Future<?>> writers = new ArrayList<>();
+                for (int thread = 0; thread < 8; thread++) {
+                    writers.add(pool.submit(() -> {
+                        for (int i = 0; i < 1000; i++) {
+                            tracker.recordView("tt1");
+                        }
+                    }));
+                }
+                for (Future<?> writer : writers) {
+                    writer.get(10, TimeUnit.SECONDS);
+                }
+                tracker.refresh();
+                assertEquals(List.of("tt1=8000"), ranking(tracker, "2m"), "round " + round);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void idleCountersAreDropped() {
+        TrendingTracker tracker = tracker();
+        tracker.recordView("tt1");
+        tracker.recordView("tt2");
+
+        clock.addAndGet(4 * MINUTE);
+        tracker.recordView("tt2");
+        tracker.refresh();
+        assertEquals(2, tracker.trackedMovies());
+
+        // tt1 has been idle for longer than the ring (6 buckets); tt2 has not
+        clock.addAndGet(3 * MINUTE);
+        tracker.refresh();
+        assertEquals(1, tracker.trackedMovies());
+        assertEquals(List.of("tt2=1"), ranking(tracker, "5m"));
+
+        // A movie that comes back starts a fresh counter
+        tracker.recordView("tt1");
+        tracker.refresh();
+        assertEquals(2, tracker.trackedMovies());
+        assertEquals(List.of("tt1=1"), ranking(tracker, "2m"));
+    }
+
+    private TrendingTracker tracker() {
+        MovieService movieService = mock(MovieService.class);
+        when(movieService.movieSummaries(any())).thenReturn(Map.of());
+        return new TrendingTracker(mock(MongoTemplate.class), movieService, 60, List.of("2m", "5m"), 10, 5, false) {
+            @Override
+            long now() {
+                return clock.get();
+            }
+        };
+    }
+
+    private static List<String> ranking(TrendingTracker tracker, String window) {
+        return ranking(tracker, window, 10);
+    }
+
+    private static List<String> ranking(TrendingTracker tracker, String window, int limit) {
+        return tracker.trending(window, limit).stream().map(movie -> movie.imdbID() + "=" + movie.score()).toList();
+    }
+}
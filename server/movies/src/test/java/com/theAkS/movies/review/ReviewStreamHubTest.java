@@ -0,0 +1,227 @@
+package com.theAkS.movies.review;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReviewStreamHubTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AtomicLong clock = new AtomicLong(1_000_000);
+    private final List<ReviewStreamHub> hubs = new ArrayList<>();
+    // When set, every send waits for it, as a client that stopped reading would
+    private volatile CountDownLatch stalled;
+    private final CountDownLatch sending = new CountDownLatch(1);
+
+    @AfterEach
+    void shutdownHubs() {
+        if (stalled != null) {
+            stalled.countDown();
+        }
+        hubs.forEach(ReviewStreamHub::shutdown);
+    }
+
+    @Test
+    void fullQueueEvictsTheSubscriber() throws Exception {
+        ReviewStreamHub hub = hub(2, 50, 60_000);
+        stalled = new CountDownLatch(1);
+        hub.subscribe("tt1", null).orElseThrow();
+        // The "connected" comment is taken off the queue and stuck in send
+        assertTrue(sending.await(5, TimeUnit.SECONDS));
+
+        hub.publish("tt1", review());
+        hub.publish("tt1", review());
+        assertEquals(1, hub.subscriberCount());
+        assertEquals(0, registry.get("movies.reviews.stream.evicted").counter().count());
+
+        hub.publish("tt1", review());
+        assertEquals(0, hub.subscriberCount());
+        assertEquals(1, registry.get("movies.reviews.stream.evicted").counter().count());
+        assertEquals(3, registry.get("movies.reviews.stream.published").counter().count());
+    }
+
+    @Test
+    void resumeSendsOnlyWhatCameAfterTheLastEventId() throws Exception {
+        ReviewStreamHub hub = hub(32, 50, 60_000);
+        Review first = publish(hub, "tt1");
+        Review second = publish(hub, "tt1");
+        publish(hub, "tt2");
+        Review third = publish(hub, "tt1");
+
+        Recording stream = subscribe(hub, "tt1", first.getId().toHexString());
+        eventually(() -> stream.events().size() == 2);
+        Review live = publish(hub, "tt1");
+        eventually(() -> stream.events().size() == 3);
+        assertEquals(List.of(id(second), id(third), id(live)), stream.events());
+
+        // An id the hub cannot parse starts the client from now
+        Recording fresh = subscribe(hub, "tt1", "not-an-object-id");
+        Review next = publish(hub, "tt1");
+        eventually(() -> fresh.events().size() == 1);
+        assertEquals(List.of(id(next)), fresh.events());
+    }
+
+    @Test
+    void clientBehindTheReplayBufferIsToldToResync() throws Exception {
+        ReviewStreamHub hub = hub(32, 3, 60_000);
+        List<Review> reviews = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            reviews.add(publish(hub, "tt1"));
+        }
+
+        // Only the last three are kept, so whatever came after the second may have been dropped
+        Recording behind = subscribe(hub, "tt1", reviews.get(1).getId().toHexString());
+        eventually(() -> behind.events().size() == 1);
+        assertEquals(List.of("resync"), behind.events());
+
+        Recording caughtUp = subscribe(hub, "tt1", reviews.get(2).getId().toHexString());
+        eventually(() -> caughtUp.events().size() == 2);
+        assertEquals(List.of(id(reviews.get(3)), id(reviews.get(4))), caughtUp.events());
+    }
+
+    @Test
+    void idleReplayBuffersAreDropped() {
+        ReviewStreamHub hub = hub(32, 50, 60_000);
+        publish(hub, "tt1");
+        publish(hub, "tt2");
+        hub.subscribe("tt2", null).orElseThrow();
+        clock.addAndGet(30_000);
+        publish(hub, "tt3");
+
+        hub.heartbeat();
+        assertEquals(3, hub.replayBuffers());
+
+        // tt1 is past the TTL; tt2 is too but still has a subscriber; tt3 published recently
+        clock.addAndGet(40_000);
+        hub.heartbeat();
+        assertEquals(2, hub.replayBuffers());
+
+        // A review for a dropped movie starts a new buffer
+        publish(hub, "tt1");
+        assertEquals(3, hub.replayBuffers());
+    }
+
+    @Test
+    void reviewsPublishedDuringAResumeArriveOnceAndInOrder() throws Exception {
+        ReviewStreamHub hub = hub(5000, 5000, 60_000);
+        Review first = publish(hub, "tt1");
+        List<String> published = new ArrayList<>();
+        List<Review> reviews = new ArrayList<>();
+        for (int i = 0; i < 4000; i++) {
+            reviews.add(review());
+            published.add(id(reviews.get(i)));
+        }
+
+        Thread publisher = new Thread(() -> reviews.forEach(review -> hub.publish("tt1", review)));
+        List<Recording> streams = new ArrayList<>();
+        publisher.start();
+        while (publisher.isAlive() && streams.size() < 100) {
+            streams.add(subscribe(hub, "tt1", first.getId().toHexString()));
+        }
+        publisher.join(5000);
+
+        for (Recording stream : streams) {
+            eventually(() -> stream.events().size() >= published.size());
+            assertEquals(published, stream.events());
+        }
+    }
+
+    private ReviewStreamHub hub(int bufferSize, int replaySize, long replayTtlMs) {
+        ReviewStreamHub hub = new ReviewStreamHub(registry, 60_000, 3000, bufferSize, replaySize, 100, 2, replayTtlMs) {
+            @Override
+            SseEmitter newEmitter(long timeoutMs) {
+                return new Recording(timeoutMs);
+            }
+
+            @Override
+            long now() {
+                return clock.get();
+            }
+        };
+        hubs.add(hub);
+        return hub;
+    }
+
+    private static Recording subscribe(ReviewStreamHub hub, String imdbId, String lastEventId) {
+        return (Recording) hub.subscribe(imdbId, lastEventId).orElseThrow();
+    }
+
+    private static Review publish(ReviewStreamHub hub, String imdbId) {
+        Review review = review();
+        hub.publish(imdbId, review);
+        return review;
+    }
+
+    private static Review review() {
+        return Review.builder().id(new ObjectId()).body("Worth the wait.").authorId(42L).build();
+    }
+
+    private static String id(Review review) {
+        return review.getId().toHexString();
+    }
+
+    private static void eventually(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition not met within 5s");
+            Thread.sleep(5);
+        }
+    }
+
+    // Keeps the review ids and named events it was sent; comments are dropped
+    private final class Recording extends SseEmitter {
+        private final List<String> events = new ArrayList<>();
+
+        Recording(long timeoutMs) {
+            super(timeoutMs);
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            sending.countDown();
+            if (stalled != null) {
+                try {
+                    stalled.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            StringBuilder text = new StringBuilder();
+            builder.build().forEach(part -> text.append(part.getData() instanceof String s ? s : ""));
+            String id = null;
+            String name = null;
+            for (String line : text.toString().split("\n")) {
+                if (line.startsWith("id:")) {
+                    id = line.substring(3);
+                } else if (line.startsWith("event:")) {
+                    name = line.substring(6);
+                }
+            }
+            synchronized (events) {
+                if ("review".equals(name)) {
+                    events.add(id);
+                } else if (name != null) {
+                    events.add(name);
+                }
+            }
+        }
+
+        List<String> events() {
+            synchronized (events) {
+                return List.copyOf(events);
+            }
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.theAkS.movies.support;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConcurrencyLimitFilterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(registry, new MockEnvironment(), true);
+
+    @Test
+    void requestsAreLimitedByPartition() throws Exception {
+        assertEquals("auth", partition("POST", "/auth/login"));
+        assertEquals("catalog", partition("GET", "/movies/tt0111161"));
+        assertEquals("catalog", partition("GET", "/movies/tt0111161/reviews"));
+        assertEquals("catalog", partition("POST", "/movies/batch"));
+        assertEquals("catalog", partition("GET", "/users/me/reviews"));
+        assertEquals("catalog", partition("GET", "/admin/users/42/reviews"));
+        assertEquals("catalog", partition("GET", "/moderation/reviews"));
+        assertEquals("review-writes", partition("POST", "/reviews"));
+        assertEquals("review-writes", partition("PUT", "/moderation/reviews/66f1c0ffee/flag"));
+    }
+
+    @Test
+    void streamsAndOperationalEndpointsAreNotLimited() throws Exception {
+        assertEquals("none", partition("GET", "/movies/tt0111161/reviews/stream"));
+        assertEquals("none", partition("GET", "/actuator/health"));
+        assertEquals("none", partition("GET", "/moderation/dead-letters"));
+        assertEquals("none", partition("PUT", "/movies/tt0111161"));
+    }
+
+    @Test
+    void disabledFilterLimitsNothing() throws Exception {
+        ConcurrencyLimitFilter disabled = new ConcurrencyLimitFilter(new SimpleMeterRegistry(), new MockEnvironment(), false);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        AtomicBoolean passed = new AtomicBoolean();
+
+        disabled.doFilter(request("POST", "/auth/login"), response, (req, res) -> passed.set(true));
+        assertTrue(passed.get());
+        assertEquals(200, response.getStatus());
+    }
+
+    // The partition whose in-flight gauge the request raised while it was inside the chain
+    private String partition(String method, String path) throws Exception {
+        AtomicReference<String> partition = new AtomicReference<>("none");
+        filter.doFilter(request(method, path), new MockHttpServletResponse(), (req, res) -> {
+            for (String name : List.of("auth", "catalog", "review-writes")) {
+                if (registry.get("movies.limiter.inflight").tag("partition", name).gauge().value() == 1) {
+                    partition.set(name);
+                }
+            }
+        });
+        return partition.get();
+    }
+
+    // As Tomcat presents it under the /api/v1 context path
+    private static MockHttpServletRequest request(String method, String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, "/api/v1" + path);
+        request.setContextPath("/api/v1");
+        request.setServletPath(path);
+        return request;
+    }
+}
@@ -0,0 +1,63 @@
+package com.theAkS.movies.support;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GradientLimitTest {
+
+    private long now;
+
+    @Test
+    void requestsOverTheLimitAreRejectedNotQueued() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        GradientLimit limit = new GradientLimit("test", 2, 1, 10, registry);
+
+        assertTrue(limit.tryAcquire());
+        assertTrue(limit.tryAcquire());
+        assertFalse(limit.tryAcquire());
+        assertEquals(1, registry.get("movies.limiter.rejected").tag("partition", "test").counter().count());
+
+        limit.release(System.nanoTime());
+        assertTrue(limit.tryAcquire());
+        assertEquals(2, limit.inFlight());
+    }
+
+    @Test
+    void limitFollowsLatency() {
+        GradientLimit limit = new GradientLimit("test", 20, 4, 100, new SimpleMeterRegistry());
+        now = System.nanoTime(); // not before the first window opened
+
+        windows(limit, 20, 10, true);
+        int grown = limit.limit();
+        assertTrue(grown > 20, "steady latency at the limit should raise it, was " + grown);
+
+        // Mongo slows down fivefold: the limit backs off toward the floor
+        windows(limit, 20, 50, true);
+        int shrunk = limit.limit();
+        assertTrue(shrunk < grown / 2, "rising latency should cut the limit, was " + shrunk);
+        assertTrue(shrunk >= 4);
+
+        // Recovered, but hardly any traffic: no evidence to grow on
+        windows(limit, 20, 10, false);
+        assertEquals(shrunk, limit.limit());
+
+        windows(limit, 40, 10, true);
+        assertTrue(limit.limit() > shrunk);
+        assertTrue(limit.limit() <= 100);
+    }
+
+    private void windows(GradientLimit limit, int count, long rttMs, boolean saturated) {
+        for (int w = 0; w < count; w++) {
+            for (int i = 0; i < GradientLimit.MIN_SAMPLES; i++) {
+                now += GradientLimit.WINDOW_NANOS / GradientLimit.MIN_SAMPLES;
+                limit.sample(TimeUnit.MILLISECONDS.toNanos(rttMs), saturated ? limit.limit() : 1, now);
+            }
+        }
+    }
+}
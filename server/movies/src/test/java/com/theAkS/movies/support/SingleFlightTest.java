@@ -0,0 +1,119 @@
+package com.theAkS.movies.support;
+
+import com.theAkS.movies.support.SingleFlight.SingleFlightTimeoutException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SingleFlightTest {
+
+    @Test
+    void concurrentCallersShareOneLoad() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        SingleFlight<String, String> flight = new SingleFlight<>("test", Duration.ofSeconds(5), registry);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(pool.submit(() -> flight.execute("tt1", () -> {
+                    loads.incrementAndGet();
+                    await(release);
+                    return "movie";
+                })));
+            }
+            while (registry.get("movies.singleflight.loads").tag("result", "coalesced").counter().count() < 7) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+            for (Future<String> result : results) {
+                assertEquals("movie", result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, loads.get());
+            assertEquals(0, flight.inFlightCount());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void errorsPropagateToEveryCaller() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        SingleFlight<String, String> flight = new SingleFlight<>("test", Duration.ofSeconds(5), registry);
+        IllegalStateException failure = new IllegalStateException("mongo down");
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> leader = pool.submit(() -> flight.execute("tt1", () -> {
+                await(release);
+                throw failure;
+            }));
+            while (flight.inFlightCount() == 0) {
+                Thread.onSpinWait();
+            }
+            Future<?> follower = pool.submit(() -> flight.execute("tt1", () -> "not called"));
+            while (registry.get("movies.singleflight.loads").tag("result", "coalesced").counter().count() < 1) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+
+            // The follower gets the leader's exception itself, not an ExecutionException wrapping it
+            assertSame(failure, assertThrows(ExecutionException.class, () -> leader.get(5, TimeUnit.SECONDS)).getCause());
+            assertSame(failure, assertThrows(ExecutionException.class, () -> follower.get(5, TimeUnit.SECONDS)).getCause());
+            assertEquals(1, registry.get("movies.singleflight.loads").tag("result", "executed").counter().count());
+        } finally {
+            pool.shutdownNow();
+        }
+        // A failed load is not cached; the next caller retries
+        assertEquals("movie", flight.execute("tt1", () -> "movie"));
+    }
+
+    @Test
+    void followerGivesUpAfterItsTimeout() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        SingleFlight<String, String> flight = new SingleFlight<>("test", Duration.ofMillis(50), registry);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> leader = pool.submit(() -> flight.execute("tt1", () -> {
+                await(release);
+                return "movie";
+            }));
+            while (flight.inFlightCount() == 0) {
+                Thread.onSpinWait();
+            }
+
+            assertThrows(SingleFlightTimeoutException.class, () -> flight.execute("tt1", () -> "not called"));
+            assertEquals(1, registry.get("movies.singleflight.timeouts").tag("name", "test").counter().count());
+
+            // The leader is not cut short by a follower giving up
+            release.countDown();
+            assertEquals("movie", leader.get(5, TimeUnit.SECONDS));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}